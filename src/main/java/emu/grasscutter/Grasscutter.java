@@ -23,6 +23,7 @@ import emu.grasscutter.server.http.handlers.AnnouncementsHandler;
 import emu.grasscutter.server.http.handlers.GachaHandler;
 import emu.grasscutter.server.http.handlers.GenericHandler;
 import emu.grasscutter.server.http.handlers.LogHandler;
+import emu.grasscutter.server.http.handlers.MetricsHandler;
 import emu.grasscutter.tools.Tools;
 import emu.grasscutter.utils.Crypto;
 import emu.grasscutter.utils.JsonUtils;
@@ -44,6 +45,7 @@ import javax.annotation.Nullable;
 import java.io.*;
 import java.util.Calendar;
 
+import static emu.grasscutter.config.Configuration.HTTP_INFO;
 import static emu.grasscutter.config.Configuration.SERVER;
 import static emu.grasscutter.utils.Language.translate;
 
@@ -139,6 +141,8 @@ public final class Grasscutter {
         httpServer.addRouter(DispatchHandler.class);
         httpServer.addRouter(GachaHandler.class);
         httpServer.addRouter(DocumentationServerHandler.class);
+        if (HTTP_INFO.enableMetrics)
+            httpServer.addRouter(MetricsHandler.class);
 
         // Start servers.
         var runMode = Grasscutter.getRunMode();
@@ -0,0 +1,48 @@
+package emu.grasscutter.command.commands;
+
+import emu.grasscutter.Grasscutter;
+import emu.grasscutter.command.Command;
+import emu.grasscutter.command.CommandHandler;
+import emu.grasscutter.game.player.Player;
+import emu.grasscutter.server.game.PacketHandlerStats;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static emu.grasscutter.utils.Language.translate;
+
+@Command(label = "packetstats", aliases = {"pstats"}, usage = {"[<count>]"}, permission = "server.packetstats", targetRequirement = Command.TargetRequirement.NONE)
+public final class PacketStatsCommand implements CommandHandler {
+
+    @Override
+    public void execute(Player sender, Player targetPlayer, List<String> args) {
+        int count = 10;
+        if (args.size() > 0) {
+            try {
+                count = Integer.parseInt(args.get(0));
+            } catch (NumberFormatException ignored) {
+                sendUsageMessage(sender);
+                return;
+            }
+        }
+
+        var handlers = Grasscutter.getGameServer().getPacketHandler().getHandlerStats().values().stream()
+            .filter(stats -> stats.getReceived() > 0)
+            .sorted(Comparator.comparingLong((PacketHandlerStats stats) -> stats.getLatency().getTotalMicros()).reversed())
+            .limit(count)
+            .toList();
+
+        if (handlers.isEmpty()) {
+            CommandHandler.sendMessage(sender, translate(sender, "commands.packetstats.empty"));
+            return;
+        }
+
+        CommandHandler.sendMessage(sender, translate(sender, "commands.packetstats.header", handlers.size()));
+        for (PacketHandlerStats stats : handlers) {
+            var latency = stats.getLatency();
+            CommandHandler.sendMessage(sender, "%s: %d, %.1f ms, p50 %.2f ms, p99 %.2f ms".formatted(
+                stats.getOpcodeName(), latency.getCount(), latency.getTotalMicros() / 1000d,
+                latency.getPercentile(0.5) / 1000d, latency.getPercentile(0.99) / 1000d));
+        }
+    }
+}
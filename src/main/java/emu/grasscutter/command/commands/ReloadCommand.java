@@ -4,6 +4,7 @@ import emu.grasscutter.Grasscutter;
 import emu.grasscutter.command.Command;
 import emu.grasscutter.command.CommandHandler;
 import emu.grasscutter.game.player.Player;
+import emu.grasscutter.server.http.dispatch.RegionHandler;
 
 import java.util.List;
 
@@ -21,6 +22,7 @@ public final class ReloadCommand implements CommandHandler {
         Grasscutter.getGameServer().getGachaSystem().load();
         Grasscutter.getGameServer().getDropSystem().load();
         Grasscutter.getGameServer().getShopSystem().load();
+        RegionHandler.clearEncryptedRegions();
 
         CommandHandler.sendMessage(sender, translate(sender, "commands.reload.reload_done"));
     }
@@ -7,6 +7,7 @@ import emu.grasscutter.Grasscutter.ServerDebugMode;
 import emu.grasscutter.Grasscutter.ServerRunMode;
 import emu.grasscutter.utils.JsonUtils;
 
+import java.util.Map;
 import java.util.Set;
 import java.lang.reflect.Field;
 import java.util.Arrays;
@@ -78,6 +79,23 @@ public class ConfigContainer {
         public static class DataStore {
             public String connectionUri = "mongodb://localhost:27017";
             public String collection = "grasscutter";
+
+            public ConnectionPool connectionPool = new ConnectionPool();
+            /* Wire compressors in order of preference: "zstd", "snappy" or "zlib".
+               zstd and snappy need their libraries on the classpath. */
+            public String[] compressors = {};
+            /* Read preference by collection name, e.g. "gachas": "secondaryPreferred" */
+            public Map<String, String> readPreferences = Map.of();
+            /* Write concern by collection name, e.g. "items": "W1" */
+            public Map<String, String> writeConcerns = Map.of();
+        }
+
+        public static class ConnectionPool {
+            /* Values of 0 keep the driver (or connection string) defaults */
+            public int maxSize = 0;
+            public int minSize = 0;
+            /* How long a request waits for a free connection (milliseconds) */
+            public int maxWaitTime = 0;
         }
     }
 
@@ -132,6 +150,9 @@ public class ConfigContainer {
         public Encryption encryption = new Encryption();
         public Policies policies = new Policies();
         public Files files = new Files();
+
+        /* Serves Prometheus metrics on /metrics. Anyone who can reach the HTTP server can read them. */
+        public boolean enableMetrics = false;
     }
 
     public static class Game {
@@ -150,6 +171,16 @@ public class ConfigContainer {
 
         /* Kcp internal work interval (milliseconds) */
         public int kcpInterval = 20;
+        /* Threads used for the login handshake (RSA and database lookups) */
+        public int handshakeThreads = 4;
+        /* Pending handshakes allowed before new clients are told to retry */
+        public int handshakeQueueLimit = 256;
+        /* Offline player profiles kept in memory for friend and profile lookups */
+        public int socialDetailCacheSize = 1024;
+        /* How long a cached offline profile stays valid (seconds) */
+        public int socialDetailCacheTtl = 300;
+        /* Packet handlers running longer than this are logged, rate limited per opcode (milliseconds, 0 to disable) */
+        public int slowPacketHandlerMillis = 100;
         /* Controls whether packets should be logged in console or not */
         public ServerDebugMode logPackets = ServerDebugMode.NONE;
         /* Show packet payload in console or no (in any case the payload is shown in encrypted view) */
@@ -216,7 +247,7 @@ public class ConfigContainer {
     public static class GameOptions {
         public InventoryLimits inventoryLimits = new InventoryLimits();
         public AvatarLimits avatarLimits = new AvatarLimits();
-        public int sceneEntityLimit = 1000; // Unenforced. TODO: Implement.
+        public int sceneEntityLimit = 1000; // Static spawns beyond this are deferred, farthest from players first.
 
         public boolean watchGachaConfig = false;
         public boolean enableShopItems = true;
@@ -226,6 +257,11 @@ public class ConfigContainer {
         public ResinOptions resinOptions = new ResinOptions();
         public Rates rates = new Rates();
         public boolean questing = false;
+        public boolean packMaterials = false; // Run with -migratematerials after changing this.
+        public int loginPacketCacheSeconds = 300; // How long login packets of offline players are kept, 0 to disable.
+        public int sceneKeepAliveSeconds = 60; // How long an emptied scene is kept for players coming back, 0 to disable.
+        public int chatHistoryLimit = 100; // Messages kept per conversation, older ones are dropped.
+        public int chatHistoryPersisted = 0; // Latest private messages per conversation kept between sessions, 0 to disable.
 
         public static class InventoryLimits {
             public int weapons = 2000;
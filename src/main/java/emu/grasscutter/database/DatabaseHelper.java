@@ -1,12 +1,20 @@
 package emu.grasscutter.database;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
 
-import dev.morphia.query.FindOptions;
+import org.bson.types.ObjectId;
+
+import dev.morphia.DeleteOptions;
 import dev.morphia.query.Sort;
 import dev.morphia.query.experimental.filters.Filters;
+import dev.morphia.query.experimental.updates.UpdateOperator;
+import dev.morphia.query.experimental.updates.UpdateOperators;
 import emu.grasscutter.GameConstants;
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.game.Account;
@@ -14,11 +22,16 @@ import emu.grasscutter.game.activity.PlayerActivityData;
 import emu.grasscutter.game.activity.musicgame.MusicGameBeatmap;
 import emu.grasscutter.game.avatar.Avatar;
 import emu.grasscutter.game.battlepass.BattlePassManager;
+import emu.grasscutter.game.chat.PersistedChatHistory;
 import emu.grasscutter.game.friends.Friendship;
 import emu.grasscutter.game.gacha.GachaRecord;
 import emu.grasscutter.game.home.GameHome;
+import emu.grasscutter.game.home.HomeBlockItem;
+import emu.grasscutter.game.home.HomeSceneItem;
 import emu.grasscutter.game.inventory.GameItem;
+import emu.grasscutter.game.inventory.MaterialLedger;
 import emu.grasscutter.game.mail.Mail;
+import emu.grasscutter.game.player.LoginPacketCache;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.quest.GameMainQuest;
 
@@ -131,6 +144,7 @@ public final class DatabaseHelper {
             if (player == null) return;
         }
         int uid = player.getUid();
+        Grasscutter.getGameServer().getSocialDetailCache().invalidate(uid);
         // Delete data from collections
         DatabaseManager.getGameDatabase().getCollection("activities").deleteMany(eq("uid", uid));
         DatabaseManager.getGameDatabase().getCollection("homes").deleteMany(eq("ownerUid", uid));
@@ -138,8 +152,10 @@ public final class DatabaseHelper {
         DatabaseManager.getGameDatabase().getCollection("avatars").deleteMany(eq("ownerId", uid));
         DatabaseManager.getGameDatabase().getCollection("gachas").deleteMany(eq("ownerId", uid));
         DatabaseManager.getGameDatabase().getCollection("items").deleteMany(eq("ownerId", uid));
+        DatabaseManager.getGameDatabase().getCollection("material_ledgers").deleteMany(eq("ownerId", uid));
         DatabaseManager.getGameDatabase().getCollection("quests").deleteMany(eq("ownerUid", uid));
         DatabaseManager.getGameDatabase().getCollection("battlepass").deleteMany(eq("ownerUid", uid));
+        DatabaseManager.getGameDatabase().getCollection("chat_history").deleteMany(eq("_id", uid));
 
         // Delete friendships.
         // Here, we need to make sure to not only delete the deleted account's friendships,
@@ -189,7 +205,7 @@ public final class DatabaseHelper {
             character.setUid(id);
         }
         // Save to database
-        DatabaseManager.getGameDatastore().save(character);
+        save(character);
         return character;
     }
 
@@ -208,11 +224,12 @@ public final class DatabaseHelper {
     }
 
     public static void savePlayer(Player character) {
-        DatabaseManager.getGameDatastore().save(character);
+        save(character);
     }
 
     public static void saveAvatar(Avatar avatar) {
-        DatabaseManager.getGameDatastore().save(avatar);
+        save(avatar);
+        LoginPacketCache.invalidateAvatar(avatar.getOwnerId(), avatar.getAvatarId());
     }
 
     public static List<Avatar> getAvatars(Player player) {
@@ -220,16 +237,59 @@ public final class DatabaseHelper {
     }
 
     public static void saveItem(GameItem item) {
-        DatabaseManager.getGameDatastore().save(item);
+        save(item);
+        invalidateLoginPackets(item);
     }
 
     public static boolean deleteItem(GameItem item) {
         DeleteResult result = DatabaseManager.getGameDatastore().delete(item);
+        invalidateLoginPackets(item);
         return result.wasAcknowledged();
     }
 
+    private static void invalidateLoginPackets(GameItem item) {
+        LoginPacketCache.invalidateInventory(item.getOwnerId());
+        if (item.isEquipped()) {
+            // Equipment changes the stats of the avatar wearing it
+            LoginPacketCache.invalidateAvatar(item.getOwnerId(), item.getEquipCharacter());
+        }
+    }
+
+    public static void deleteItems(List<GameItem> items) {
+        List<ObjectId> ids = items.stream().map(GameItem::getObjectId).filter(Objects::nonNull).toList();
+        if (ids.isEmpty()) return;
+
+        DatabaseManager.getGameDatastore().find(GameItem.class).filter(Filters.in("_id", ids)).delete(new DeleteOptions().multi(true));
+        items.forEach(DatabaseHelper::invalidateLoginPackets);
+    }
+
     public static List<GameItem> getInventoryItems(Player player) {
-        return DatabaseManager.getGameDatastore().find(GameItem.class).filter(Filters.eq("ownerId", player.getUid())).stream().toList();
+        return getInventoryItems(player.getUid());
+    }
+
+    public static List<GameItem> getInventoryItems(int ownerId) {
+        return DatabaseManager.getGameDatastore().find(GameItem.class).filter(Filters.eq("ownerId", ownerId)).stream().toList();
+    }
+
+    public static List<Integer> getItemOwnerIds() {
+        return DatabaseManager.getGameDatabase().getCollection("items").distinct("ownerId", Integer.class).into(new ArrayList<>());
+    }
+
+    public static MaterialLedger getMaterialLedger(int ownerId) {
+        return DatabaseManager.getGameDatastore().find(MaterialLedger.class).filter(Filters.eq("ownerId", ownerId)).first();
+    }
+
+    public static List<Integer> getMaterialLedgerOwnerIds() {
+        return DatabaseManager.getGameDatabase().getCollection("material_ledgers").distinct("ownerId", Integer.class).into(new ArrayList<>());
+    }
+
+    public static void saveMaterialLedger(MaterialLedger ledger) {
+        save(ledger);
+        LoginPacketCache.invalidateInventory(ledger.getOwnerId());
+    }
+
+    public static void deleteMaterialLedger(MaterialLedger ledger) {
+        DatabaseManager.getGameDatastore().delete(ledger);
     }
 
     public static List<Friendship> getFriends(Player player) {
@@ -241,7 +301,7 @@ public final class DatabaseHelper {
     }
 
     public static void saveFriendship(Friendship friendship) {
-        DatabaseManager.getGameDatastore().save(friendship);
+        save(friendship);
     }
 
     public static void deleteFriendship(Friendship friendship) {
@@ -263,35 +323,90 @@ public final class DatabaseHelper {
         return DatabaseManager.getGameDatastore().find(GachaRecord.class).filter(
             Filters.eq("ownerId", ownerId),
             Filters.eq("gachaType", gachaType)
-        ).iterator(new FindOptions()
+        ).iterator(DatabaseManager.getFindOptions(GachaRecord.class)
                 .sort(Sort.descending("transactionDate"))
                 .skip(pageSize * page)
                 .limit(pageSize)
         ).toList();
     }
 
-    public static long getGachaRecordsMaxPage(int ownerId, int page, int gachaType) {
-        return getGachaRecordsMaxPage(ownerId, page, gachaType, 10);
+    /**
+     * Gets a page of gacha records older than the given record, newest first.
+     * Only the fields shown on the records page are loaded.
+     * @param before The last record of the previous page, or null for the first page.
+     */
+    public static List<GachaRecord> getGachaRecordsBefore(int ownerId, int gachaType, GachaRecord before, int pageSize) {
+        var query = DatabaseManager.getGameDatastore().find(GachaRecord.class).filter(
+            Filters.eq("ownerId", ownerId),
+            Filters.eq("gachaType", gachaType)
+        );
+        if (before != null) {
+            query.filter(Filters.or(
+                Filters.lt("transactionDate", before.getTransactionDate()),
+                Filters.and(Filters.eq("transactionDate", before.getTransactionDate()), Filters.lt("_id", before.getId()))
+            ));
+        }
+
+        return query.iterator(DatabaseManager.getFindOptions(GachaRecord.class)
+                .sort(Sort.descending("transactionDate"), Sort.descending("_id"))
+                .limit(pageSize)
+                .projection().include("transactionDate", "itemID")
+        ).toList();
     }
 
-    public static long getGachaRecordsMaxPage(int ownerId, int page, int gachaType, int pageSize) {
-        long count = DatabaseManager.getGameDatastore().find(GachaRecord.class).filter(
+    /**
+     * Gets a page of gacha records newer than the given record, newest first.
+     * @param after The first record of the next page.
+     */
+    public static List<GachaRecord> getGachaRecordsAfter(int ownerId, int gachaType, GachaRecord after, int pageSize) {
+        List<GachaRecord> records = new ArrayList<>(DatabaseManager.getGameDatastore().find(GachaRecord.class).filter(
+            Filters.eq("ownerId", ownerId),
+            Filters.eq("gachaType", gachaType),
+            Filters.or(
+                Filters.gt("transactionDate", after.getTransactionDate()),
+                Filters.and(Filters.eq("transactionDate", after.getTransactionDate()), Filters.gt("_id", after.getId()))
+            )
+        ).iterator(DatabaseManager.getFindOptions(GachaRecord.class)
+                .sort(Sort.ascending("transactionDate"), Sort.ascending("_id"))
+                .limit(pageSize)
+                .projection().include("transactionDate", "itemID")
+        ).toList());
+
+        Collections.reverse(records);
+        return records;
+    }
+
+    public static long getGachaRecordCount(int ownerId, int gachaType) {
+        return DatabaseManager.getGameDatastore().find(GachaRecord.class).filter(
             Filters.eq("ownerId", ownerId),
             Filters.eq("gachaType", gachaType)
         ).count();
+    }
+
+    public static long getGachaRecordsMaxPage(int ownerId, int page, int gachaType) {
+        return getGachaRecordsMaxPage(ownerId, page, gachaType, 10);
+    }
+
+    public static long getGachaRecordsMaxPage(int ownerId, int page, int gachaType, int pageSize) {
+        long count = getGachaRecordCount(ownerId, gachaType);
         return count / 10 + (count % 10 > 0 ? 1 : 0 );
     }
 
     public static void saveGachaRecord(GachaRecord gachaRecord) {
-        DatabaseManager.getGameDatastore().save(gachaRecord);
+        save(gachaRecord);
+    }
+
+    public static void saveGachaRecords(List<GachaRecord> gachaRecords) {
+        DatabaseManager.getGameDatastore().save(gachaRecords, DatabaseManager.getInsertManyOptions(GachaRecord.class));
     }
 
     public static List<Mail> getAllMail(Player player) {
-        return DatabaseManager.getGameDatastore().find(Mail.class).filter(Filters.eq("ownerUid", player.getUid())).stream().toList();
+        return DatabaseManager.getGameDatastore().find(Mail.class).filter(Filters.eq("ownerUid", player.getUid()))
+            .iterator(DatabaseManager.getFindOptions(Mail.class)).toList();
     }
 
     public static void saveMail(Mail mail) {
-        DatabaseManager.getGameDatastore().save(mail);
+        save(mail);
     }
 
     public static boolean deleteMail(Mail mail) {
@@ -299,12 +414,24 @@ public final class DatabaseHelper {
         return result.wasAcknowledged();
     }
 
+    public static PersistedChatHistory getChatHistory(int uid) {
+        return DatabaseManager.getGameDatastore().find(PersistedChatHistory.class).filter(Filters.eq("_id", uid)).first();
+    }
+
+    public static void saveChatHistory(PersistedChatHistory history) {
+        save(history);
+    }
+
+    public static void deleteChatHistory(int uid) {
+        DatabaseManager.getGameDatastore().find(PersistedChatHistory.class).filter(Filters.eq("_id", uid)).delete();
+    }
+
     public static List<GameMainQuest> getAllQuests(Player player) {
         return DatabaseManager.getGameDatastore().find(GameMainQuest.class).filter(Filters.eq("ownerUid", player.getUid())).stream().toList();
     }
 
     public static void saveQuest(GameMainQuest quest) {
-        DatabaseManager.getGameDatastore().save(quest);
+        save(quest);
     }
 
     public static boolean deleteQuest(GameMainQuest quest) {
@@ -316,7 +443,32 @@ public final class DatabaseHelper {
     }
 
     public static void saveHome(GameHome gameHome) {
-        DatabaseManager.getGameDatastore().save(gameHome);
+        save(gameHome);
+    }
+
+    /**
+     * Writes the changed blocks and the settings of a home scene, leaving the rest of the home untouched.
+     * @return False if the home is not in the database yet.
+     */
+    public static boolean saveHomeScene(GameHome gameHome, HomeSceneItem sceneItem, List<HomeBlockItem> changedBlocks) {
+        String path = "sceneMap." + sceneItem.getSceneId() + ".";
+        List<UpdateOperator> updates = new ArrayList<>();
+        changedBlocks.forEach(block -> updates.add(UpdateOperators.set(path + "blockItems." + block.getBlockId(), block)));
+        updates.add(UpdateOperators.set(path + "bornPos", sceneItem.getBornPos()));
+        updates.add(UpdateOperators.set(path + "bornRot", sceneItem.getBornRot()));
+        updates.add(UpdateOperators.set(path + "djinnPos", sceneItem.getDjinnPos()));
+        updates.add(UpdateOperators.set(path + "homeBgmId", sceneItem.getHomeBgmId()));
+        updates.add(UpdateOperators.set(path + "tmpVersion", sceneItem.getTmpVersion()));
+        if (sceneItem.getMainHouse() != null) {
+            updates.add(UpdateOperators.set(path + "mainHouse", sceneItem.getMainHouse()));
+        }
+
+        UpdateResult result = DatabaseManager.getGameDatastore().find(GameHome.class)
+            .disableValidation()
+            .filter(Filters.eq("ownerUid", gameHome.getOwnerUid()))
+            .update(updates.get(0), updates.subList(1, updates.size()).toArray(UpdateOperator[]::new))
+            .execute();
+        return result.getMatchedCount() > 0;
     }
 
     public static BattlePassManager loadBattlePass(Player player) {
@@ -331,7 +483,7 @@ public final class DatabaseHelper {
     }
 
     public static void saveBattlePass(BattlePassManager manager) {
-        DatabaseManager.getGameDatastore().save(manager);
+        save(manager);
     }
 
     public static PlayerActivityData getPlayerActivityData(int uid, int activityId) {
@@ -341,7 +493,7 @@ public final class DatabaseHelper {
     }
 
     public static void savePlayerActivityData(PlayerActivityData playerActivityData) {
-        DatabaseManager.getGameDatastore().save(playerActivityData);
+        save(playerActivityData);
     }
     public static MusicGameBeatmap getMusicGameBeatmap(long musicShareId) {
         return DatabaseManager.getGameDatastore().find(MusicGameBeatmap.class)
@@ -350,6 +502,13 @@ public final class DatabaseHelper {
     }
 
     public static void saveMusicGameBeatmap(MusicGameBeatmap musicGameBeatmap) {
-        DatabaseManager.getGameDatastore().save(musicGameBeatmap);
+        save(musicGameBeatmap);
+    }
+
+    /**
+     * Saves an entity to the game datastore with the write concern configured for its collection.
+     */
+    private static void save(Object entity) {
+        DatabaseManager.getGameDatastore().save(entity, DatabaseManager.getInsertOptions(entity.getClass()));
     }
 }
@@ -2,28 +2,49 @@ package emu.grasscutter.database;
 
 import static emu.grasscutter.config.Configuration.*;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.MongoCommandException;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.MongoIterable;
 
 import dev.morphia.Datastore;
+import dev.morphia.InsertManyOptions;
+import dev.morphia.InsertOneOptions;
 import dev.morphia.Morphia;
 import dev.morphia.annotations.Entity;
 import dev.morphia.mapping.Mapper;
 import dev.morphia.mapping.MapperOptions;
+import dev.morphia.query.FindOptions;
 import dev.morphia.query.experimental.filters.Filters;
 
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.Grasscutter.ServerRunMode;
+import emu.grasscutter.config.ConfigContainer.Database.DataStore;
 import emu.grasscutter.game.Account;
 
 import org.reflections.Reflections;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 public final class DatabaseManager {
     private static Datastore gameDatastore;
     private static Datastore dispatchDatastore;
+    private static DatabaseMetrics gameMetrics;
+    private static DatabaseMetrics dispatchMetrics;
+
+    // Routing for game datastore collections, by collection name.
+    private static final Map<String, ReadPreference> readPreferences = new HashMap<>();
+    private static final Map<String, WriteConcern> writeConcerns = new HashMap<>();
 
     public static Datastore getGameDatastore() {
         return gameDatastore;
@@ -43,9 +64,112 @@ public final class DatabaseManager {
         }
     }
 
+    public static DatabaseMetrics getGameMetrics() {
+        return gameMetrics;
+    }
+
+    /**
+     * @return Metrics of the dispatch datastore, or null if it shares the game datastore.
+     */
+    public static DatabaseMetrics getDispatchMetrics() {
+        return dispatchMetrics;
+    }
+
+    /**
+     * Creates find options using the configured read preference of the entity's collection.
+     */
+    public static FindOptions getFindOptions(Class<?> entityClass) {
+        FindOptions options = new FindOptions();
+        ReadPreference readPreference = readPreferences.get(getCollectionName(entityClass));
+        if (readPreference != null) {
+            options.readPreference(readPreference);
+        }
+        return options;
+    }
+
+    /**
+     * Creates insert options using the configured write concern of the entity's collection.
+     */
+    public static InsertOneOptions getInsertOptions(Class<?> entityClass) {
+        InsertOneOptions options = new InsertOneOptions();
+        WriteConcern writeConcern = writeConcerns.get(getCollectionName(entityClass));
+        if (writeConcern != null) {
+            options.writeConcern(writeConcern);
+        }
+        return options;
+    }
+
+    public static InsertManyOptions getInsertManyOptions(Class<?> entityClass) {
+        InsertManyOptions options = new InsertManyOptions();
+        WriteConcern writeConcern = writeConcerns.get(getCollectionName(entityClass));
+        if (writeConcern != null) {
+            options.writeConcern(writeConcern);
+        }
+        return options;
+    }
+
+    private static String getCollectionName(Class<?> entityClass) {
+        Entity entity = entityClass.getAnnotation(Entity.class);
+        return entity != null ? entity.value() : entityClass.getSimpleName();
+    }
+
+    /**
+     * Creates a client for a datastore, applying the pool and compression settings.
+     */
+    private static MongoClient createClient(DataStore store, DatabaseMetrics metrics) {
+        var pool = store.connectionPool;
+        var settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(store.connectionUri))
+                .applyToConnectionPoolSettings(builder -> {
+                    if (pool.maxSize > 0) builder.maxSize(pool.maxSize);
+                    if (pool.minSize > 0) builder.minSize(pool.minSize);
+                    if (pool.maxWaitTime > 0) builder.maxWaitTime(pool.maxWaitTime, TimeUnit.MILLISECONDS);
+                    builder.addConnectionPoolListener(metrics);
+                })
+                .addCommandListener(metrics);
+
+        List<MongoCompressor> compressors = new ArrayList<>();
+        for (String compressor : store.compressors) {
+            switch (compressor.toLowerCase()) {
+                case "zstd" -> compressors.add(MongoCompressor.createZstdCompressor());
+                case "snappy" -> compressors.add(MongoCompressor.createSnappyCompressor());
+                case "zlib" -> compressors.add(MongoCompressor.createZlibCompressor());
+                default -> Grasscutter.getLogger().warn("Unknown database compressor: " + compressor);
+            }
+        }
+        if (compressors.size() > 0) {
+            settings.compressorList(compressors);
+        }
+
+        return MongoClients.create(settings.build());
+    }
+
+    private static void loadRouting(DataStore store) {
+        readPreferences.clear();
+        writeConcerns.clear();
+
+        store.readPreferences.forEach((collection, name) -> {
+            try {
+                readPreferences.put(collection, ReadPreference.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                Grasscutter.getLogger().warn("Invalid read preference for collection " + collection + ": " + name);
+            }
+        });
+        store.writeConcerns.forEach((collection, name) -> {
+            WriteConcern writeConcern = WriteConcern.valueOf(name);
+            if (writeConcern == null) {
+                Grasscutter.getLogger().warn("Invalid write concern for collection " + collection + ": " + name);
+                return;
+            }
+            writeConcerns.put(collection, writeConcern);
+        });
+    }
+
     public static void initialize() {
         // Initialize
-        MongoClient gameMongoClient = MongoClients.create(DATABASE.game.connectionUri);
+        gameMetrics = new DatabaseMetrics("game");
+        MongoClient gameMongoClient = createClient(DATABASE.game, gameMetrics);
+        loadRouting(DATABASE.game);
 
         // Set mapper options.
         MapperOptions mapperOptions = MapperOptions.builder()
@@ -70,7 +194,8 @@ public final class DatabaseManager {
         ensureIndexes(gameDatastore);
 
         if (SERVER.runMode == ServerRunMode.GAME_ONLY) {
-            MongoClient dispatchMongoClient = MongoClients.create(DATABASE.server.connectionUri);
+            dispatchMetrics = new DatabaseMetrics("dispatch");
+            MongoClient dispatchMongoClient = createClient(DATABASE.server, dispatchMetrics);
 
             dispatchDatastore = Morphia.createDatastore(dispatchMongoClient, DATABASE.server.collection, mapperOptions);
             dispatchDatastore.getMapper().map(new Class<?>[] {DatabaseCounter.class, Account.class});
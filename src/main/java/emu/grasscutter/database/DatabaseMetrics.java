@@ -0,0 +1,126 @@
+package emu.grasscutter.database;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects connection pool and command statistics from the MongoDB driver.
+ * One instance is attached to each {@link com.mongodb.client.MongoClient}.
+ */
+public final class DatabaseMetrics implements ConnectionPoolListener, CommandListener {
+    private final String name;
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger checkedOutConnections = new AtomicInteger();
+    private final LongAdder checkOutFailures = new LongAdder();
+    private final Map<String, CommandStats> commands = new ConcurrentHashMap<>();
+
+    public DatabaseMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getOpenConnections() {
+        return this.openConnections.get();
+    }
+
+    public int getCheckedOutConnections() {
+        return this.checkedOutConnections.get();
+    }
+
+    public long getCheckOutFailures() {
+        return this.checkOutFailures.sum();
+    }
+
+    /**
+     * @return Statistics by command name (find, insert, update, ...).
+     */
+    public Map<String, CommandStats> getCommands() {
+        return this.commands;
+    }
+
+    /* Connection pool events. */
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        this.openConnections.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        this.openConnections.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        this.checkedOutConnections.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        this.checkedOutConnections.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        this.checkOutFailures.increment();
+    }
+
+    /* Command events. */
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        this.getStats(event.getCommandName()).record(event.getElapsedTime(TimeUnit.MICROSECONDS), false);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        this.getStats(event.getCommandName()).record(event.getElapsedTime(TimeUnit.MICROSECONDS), true);
+    }
+
+    private CommandStats getStats(String commandName) {
+        return this.commands.computeIfAbsent(commandName, name -> new CommandStats());
+    }
+
+    public static final class CommandStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+
+        private void record(long micros, boolean failed) {
+            this.count.increment();
+            this.totalMicros.add(micros);
+            if (failed) {
+                this.failures.increment();
+            }
+        }
+
+        public long getCount() {
+            return this.count.sum();
+        }
+
+        public long getFailures() {
+            return this.failures.sum();
+        }
+
+        public long getTotalMicros() {
+            return this.totalMicros.sum();
+        }
+    }
+}
@@ -16,10 +16,8 @@ import org.bson.types.ObjectId;
 import emu.grasscutter.data.GameData;
 import emu.grasscutter.data.binout.OpenConfigEntry;
 import emu.grasscutter.data.binout.OpenConfigEntry.SkillPointModifier;
-import emu.grasscutter.data.common.FightPropData;
 import emu.grasscutter.data.excels.*;
 import emu.grasscutter.data.excels.AvatarSkillDepotData.InherentProudSkillOpens;
-import emu.grasscutter.data.excels.ItemData.WeaponProperty;
 import emu.grasscutter.database.DatabaseHelper;
 import emu.grasscutter.game.entity.EntityAvatar;
 import emu.grasscutter.game.inventory.EquipType;
@@ -66,9 +64,11 @@ public class Avatar {
     private float currentEnergy;
 
     @Transient @Getter private final Int2ObjectMap<GameItem> equips;
-    @Transient private final Int2FloatOpenHashMap fightProp;
+    @Transient private final FightPropertyVector fightProp;
     @Transient @Getter private final Int2FloatOpenHashMap fightPropOverrides;
     @Transient @Getter private Set<String> extraAbilityEmbryos;
+    @Transient private Set<String> spareAbilityEmbryos;
+    @Transient private final AvatarStatLayers statLayers;
 
     private List<Integer> fetters;
 
@@ -101,9 +101,11 @@ public class Avatar {
     @Deprecated // Do not use. Morhpia only!
     public Avatar() {
         this.equips = new Int2ObjectOpenHashMap<>();
-        this.fightProp = new Int2FloatOpenHashMap();
+        this.fightProp = new FightPropertyVector();
         this.fightPropOverrides = new Int2FloatOpenHashMap();
         this.extraAbilityEmbryos = new HashSet<>();
+        this.spareAbilityEmbryos = new HashSet<>();
+        this.statLayers = new AvatarStatLayers();
         this.fetters = new ArrayList<>(); // TODO Move to avatar
     }
 
@@ -293,7 +295,7 @@ public class Avatar {
         }
     }
 
-    public Int2FloatOpenHashMap getFightProperties() {
+    public FightPropertyVector getFightProperties() {
         return fightProp;
     }
 
@@ -417,12 +419,12 @@ public class Avatar {
     public void recalcStats(boolean forceSendAbilityChange) {
         // Setup
         AvatarData data = this.getAvatarData();
-        AvatarPromoteData promoteData = GameData.getAvatarPromoteData(data.getAvatarPromoteId(), this.getPromoteLevel());
-        Int2IntOpenHashMap setMap = new Int2IntOpenHashMap();
 
-        // Extra ability embryos
+        // Extra ability embryos, rebuilt into the spare set so they can be compared with the previous ones
         Set<String> prevExtraAbilityEmbryos = this.getExtraAbilityEmbryos();
-        this.extraAbilityEmbryos = new HashSet<>();
+        this.extraAbilityEmbryos = this.spareAbilityEmbryos;
+        this.extraAbilityEmbryos.clear();
+        this.spareAbilityEmbryos = prevExtraAbilityEmbryos;
 
         // Fetters
         this.setFetterList(data.getFetters());
@@ -435,126 +437,6 @@ public class Avatar {
         // Store current energy value for later
         float currentEnergy = (this.getSkillDepot() != null) ? this.getFightProperty(this.getSkillDepot().getElementType().getCurEnergyProp()) : 0f;
 
-        // Clear properties
-        this.getFightProperties().clear();
-
-        // Base stats
-        this.setFightProperty(FightProperty.FIGHT_PROP_BASE_HP, data.getBaseHp(this.getLevel()));
-        this.setFightProperty(FightProperty.FIGHT_PROP_BASE_ATTACK, data.getBaseAttack(this.getLevel()));
-        this.setFightProperty(FightProperty.FIGHT_PROP_BASE_DEFENSE, data.getBaseDefense(this.getLevel()));
-        this.setFightProperty(FightProperty.FIGHT_PROP_CRITICAL, data.getBaseCritical());
-        this.setFightProperty(FightProperty.FIGHT_PROP_CRITICAL_HURT, data.getBaseCriticalHurt());
-        this.setFightProperty(FightProperty.FIGHT_PROP_CHARGE_EFFICIENCY, 1f);
-
-        if (promoteData != null) {
-            for (FightPropData fightPropData : promoteData.getAddProps()) {
-                this.addFightProperty(fightPropData.getProp(), fightPropData.getValue());
-            }
-        }
-
-        // Set energy usage
-        setCurrentEnergy(currentEnergy);
-
-        // Artifacts
-        for (int slotId = 1; slotId <= 5; slotId++) {
-            // Get artifact
-            GameItem equip = this.getEquipBySlot(slotId);
-            if (equip == null) {
-                continue;
-            }
-            // Artifact main stat
-            ReliquaryMainPropData mainPropData = GameData.getReliquaryMainPropDataMap().get(equip.getMainPropId());
-            if (mainPropData != null) {
-                ReliquaryLevelData levelData = GameData.getRelicLevelData(equip.getItemData().getRankLevel(), equip.getLevel());
-                if (levelData != null) {
-                    this.addFightProperty(mainPropData.getFightProp(), levelData.getPropValue(mainPropData.getFightProp()));
-                }
-            }
-            // Artifact sub stats
-            for (int appendPropId : equip.getAppendPropIdList()) {
-                ReliquaryAffixData affixData = GameData.getReliquaryAffixDataMap().get(appendPropId);
-                if (affixData != null) {
-                    this.addFightProperty(affixData.getFightProp(), affixData.getPropValue());
-                }
-            }
-            // Set bonus
-            if (equip.getItemData().getSetId() > 0) {
-                setMap.addTo(equip.getItemData().getSetId(), 1);
-            }
-        }
-
-        // Set stuff
-        setMap.forEach((setId, amount) -> {
-            ReliquarySetData setData = GameData.getReliquarySetDataMap().get((int) setId);
-            if (setData == null) return;
-
-            // Calculate how many items are from the set
-            // Add affix data from set bonus
-            val setNeedNum = setData.getSetNeedNum();
-            for (int setIndex = 0; setIndex < setNeedNum.length; setIndex++) {
-                if (amount < setNeedNum[setIndex]) break;
-
-                int affixId = (setData.getEquipAffixId() * 10) + setIndex;
-                EquipAffixData affix = GameData.getEquipAffixDataMap().get(affixId);
-                if (affix == null) {
-                    continue;
-                }
-
-                // Add properties from this affix to our avatar
-                for (FightPropData prop : affix.getAddProps()) {
-                    this.addFightProperty(prop.getProp(), prop.getValue());
-                }
-
-                // Add any skill strings from this affix
-                this.addToExtraAbilityEmbryos(affix.getOpenConfig(), true);
-            }
-        });
-
-        // Weapon
-        GameItem weapon = this.getWeapon();
-        if (weapon != null) {
-            // Add stats
-            WeaponCurveData curveData = GameData.getWeaponCurveDataMap().get(weapon.getLevel());
-            if (curveData != null) {
-                for (WeaponProperty weaponProperty : weapon.getItemData().getWeaponProperties()) {
-                    this.addFightProperty(weaponProperty.getPropType(), weaponProperty.getInitValue() * curveData.getMultByProp(weaponProperty.getType()));
-                }
-            }
-            // Weapon promotion stats
-            WeaponPromoteData wepPromoteData = GameData.getWeaponPromoteData(weapon.getItemData().getWeaponPromoteId(), weapon.getPromoteLevel());
-            if (wepPromoteData != null) {
-                for (FightPropData prop : wepPromoteData.getAddProps()) {
-                    if (prop.getValue() == 0f || prop.getProp() == null) {
-                        continue;
-                    }
-                    this.addFightProperty(prop.getProp(), prop.getValue());
-                }
-            }
-            // Add weapon skill from affixes
-            if (weapon.getAffixes() != null && weapon.getAffixes().size() > 0) {
-                // Weapons usually dont have more than one affix but just in case...
-                for (int af : weapon.getAffixes()) {
-                    if (af == 0) {
-                        continue;
-                    }
-                    // Calculate affix id
-                    int affixId = (af * 10) + weapon.getRefinement();
-                    EquipAffixData affix = GameData.getEquipAffixDataMap().get(affixId);
-                    if (affix == null) {
-                        continue;
-                    }
-
-                    // Add properties from this affix to our avatar
-                    for (FightPropData prop : affix.getAddProps()) {
-                        this.addFightProperty(prop.getProp(), prop.getValue());
-                    }
-
-                    // Add any skill strings from this affix
-                    this.addToExtraAbilityEmbryos(affix.getOpenConfig(), true);
-                }
-            }
-        }
-
         // Add proud skills and unlock them if needed
         AvatarSkillDepotData skillDepot = GameData.getAvatarSkillDepotDataMap().get(this.getSkillDepotId());
         this.getProudSkillList().clear();
@@ -570,22 +452,20 @@ public class Avatar {
             }
         }
 
-        // Proud skills
-        for (int proudSkillId : this.getProudSkillList()) {
-            ProudSkillData proudSkillData = GameData.getProudSkillDataMap().get(proudSkillId);
-            if (proudSkillData == null) {
-                continue;
-            }
+        // Base stats, promotion, artifacts, set bonuses, weapon and proud skills. Only layers whose inputs changed are rebuilt.
+        float[] total = this.statLayers.update(this, data, this.extraAbilityEmbryos);
 
-            // Add properties from this proud skill to our avatar
-            for (FightPropData prop : proudSkillData.getAddProps()) {
-                this.addFightProperty(prop.getProp(), prop.getValue());
+        // Clear properties and copy the totals
+        this.getFightProperties().clear();
+        for (int i = 0; i < total.length; i++) {
+            if (total[i] != 0f) {
+                this.setFightProperty(AvatarStatLayers.getProp(i), total[i]);
             }
-
-            // Add any embryos from this proud skill
-            this.addToExtraAbilityEmbryos(proudSkillData.getOpenConfig());
         }
 
+        // Set energy usage
+        setCurrentEnergy(currentEnergy);
+
         // Constellations
         this.getTalentIdList().intStream()
             .mapToObj(GameData.getAvatarTalentDataMap()::get)
@@ -615,6 +495,9 @@ public class Avatar {
         // Set current hp
         this.setFightProperty(FightProperty.FIGHT_PROP_CUR_HP, this.getFightProperty(FightProperty.FIGHT_PROP_MAX_HP) * hpPercent);
 
+        // The full property map is sent below, so nothing is left to send as an update
+        this.fightProp.clearChanges();
+
         // Packet
         if (getPlayer() != null && getPlayer().hasSentLoginPackets()) {
             // Update stats for client
@@ -632,24 +515,7 @@ public class Avatar {
     }
 
     public void addToExtraAbilityEmbryos(String openConfig, boolean forceAdd) {
-        if (openConfig == null || openConfig.length() == 0) {
-            return;
-        }
-
-        OpenConfigEntry entry = GameData.getOpenConfigEntries().get(openConfig);
-        if (entry == null) {
-            if (forceAdd) {
-                // Add config string to ability skill list anyways
-                this.getExtraAbilityEmbryos().add(openConfig);
-            }
-            return;
-        }
-
-        if (entry.getAddAbilities() != null) {
-            for (String ability : entry.getAddAbilities()) {
-                this.getExtraAbilityEmbryos().add(ability);
-            }
-        }
+        AvatarStatLayers.addAbilityEmbryos(openConfig, forceAdd, this.getExtraAbilityEmbryos());
     }
 
     public void calcConstellation(OpenConfigEntry entry, boolean notifyClient) {
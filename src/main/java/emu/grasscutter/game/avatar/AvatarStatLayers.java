@@ -0,0 +1,315 @@
+package emu.grasscutter.game.avatar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import emu.grasscutter.data.GameData;
+import emu.grasscutter.data.binout.OpenConfigEntry;
+import emu.grasscutter.data.common.FightPropData;
+import emu.grasscutter.data.excels.*;
+import emu.grasscutter.data.excels.ItemData.WeaponProperty;
+import emu.grasscutter.game.inventory.GameItem;
+import emu.grasscutter.game.props.FightProperty;
+
+/**
+ * Fight property contributions of an avatar, split by source (base stats, weapon, each relic,
+ * relic sets and proud skills). Every layer remembers the inputs it was built from and is only
+ * rebuilt when those change, so a recalc after e.g. a weapon level up only redoes the weapon.
+ */
+final class AvatarStatLayers {
+    private static final FightProperty[] PROPS = FightProperty.values();
+    private static final int RELIC_SLOTS = 5;
+
+    private final Layer base = new Layer();
+    private final Layer weapon = new Layer();
+    private final Layer[] relics = new Layer[RELIC_SLOTS];
+    private final Layer relicSets = new Layer();
+    private final Layer proudSkills = new Layer();
+
+    // Sum of all layers, indexed by FightProperty ordinal
+    private final float[] total = new float[PROPS.length];
+
+    AvatarStatLayers() {
+        for (int i = 0; i < RELIC_SLOTS; i++) {
+            this.relics[i] = new Layer();
+        }
+    }
+
+    static FightProperty getProp(int ordinal) {
+        return PROPS[ordinal];
+    }
+
+    /**
+     * Rebuilds the layers whose inputs changed and sums all of them.
+     * @param avatar The avatar. Its proud skill list must already be up to date.
+     * @param embryos Receives the ability embryos added by the layers.
+     * @return The summed properties indexed by {@link FightProperty#ordinal()}. The array is reused by the next call.
+     */
+    float[] update(Avatar avatar, AvatarData data, Collection<String> embryos) {
+        this.updateBase(avatar, data);
+        this.updateWeapon(avatar.getWeapon());
+
+        int[] setIds = new int[RELIC_SLOTS];
+        for (int i = 0; i < RELIC_SLOTS; i++) {
+            GameItem relic = avatar.getEquips().get(i + 1);
+            this.updateRelic(this.relics[i], relic);
+            setIds[i] = (relic != null) ? relic.getItemData().getSetId() : 0;
+        }
+        this.updateRelicSets(setIds);
+        this.updateProudSkills(avatar);
+
+        Arrays.fill(this.total, 0f);
+        this.base.addTo(this.total, embryos);
+        for (Layer relic : this.relics) {
+            relic.addTo(this.total, embryos);
+        }
+        this.relicSets.addTo(this.total, embryos);
+        this.weapon.addTo(this.total, embryos);
+        this.proudSkills.addTo(this.total, embryos);
+
+        return this.total;
+    }
+
+    private void updateBase(Avatar avatar, AvatarData data) {
+        Layer layer = this.base;
+        if (!layer.reset(data.getId(), avatar.getLevel(), avatar.getPromoteLevel())) {
+            return;
+        }
+
+        layer.add(FightProperty.FIGHT_PROP_BASE_HP, data.getBaseHp(avatar.getLevel()));
+        layer.add(FightProperty.FIGHT_PROP_BASE_ATTACK, data.getBaseAttack(avatar.getLevel()));
+        layer.add(FightProperty.FIGHT_PROP_BASE_DEFENSE, data.getBaseDefense(avatar.getLevel()));
+        layer.add(FightProperty.FIGHT_PROP_CRITICAL, data.getBaseCritical());
+        layer.add(FightProperty.FIGHT_PROP_CRITICAL_HURT, data.getBaseCriticalHurt());
+        layer.add(FightProperty.FIGHT_PROP_CHARGE_EFFICIENCY, 1f);
+
+        AvatarPromoteData promoteData = GameData.getAvatarPromoteData(data.getAvatarPromoteId(), avatar.getPromoteLevel());
+        if (promoteData != null) {
+            for (FightPropData fightPropData : promoteData.getAddProps()) {
+                layer.add(fightPropData.getProp(), fightPropData.getValue());
+            }
+        }
+    }
+
+    private void updateRelic(Layer layer, GameItem equip) {
+        if (equip == null) {
+            layer.reset(0);
+            return;
+        }
+
+        List<Integer> appendProps = equip.getAppendPropIdList();
+        int[] key = new int[3 + (appendProps != null ? appendProps.size() : 0)];
+        key[0] = equip.getItemId();
+        key[1] = equip.getLevel();
+        key[2] = equip.getMainPropId();
+        for (int i = 3; i < key.length; i++) {
+            key[i] = appendProps.get(i - 3);
+        }
+        if (!layer.reset(key)) {
+            return;
+        }
+
+        // Artifact main stat
+        ReliquaryMainPropData mainPropData = GameData.getReliquaryMainPropDataMap().get(equip.getMainPropId());
+        if (mainPropData != null) {
+            ReliquaryLevelData levelData = GameData.getRelicLevelData(equip.getItemData().getRankLevel(), equip.getLevel());
+            if (levelData != null) {
+                layer.add(mainPropData.getFightProp(), levelData.getPropValue(mainPropData.getFightProp()));
+            }
+        }
+        // Artifact sub stats
+        if (appendProps != null) {
+            for (int appendPropId : appendProps) {
+                ReliquaryAffixData affixData = GameData.getReliquaryAffixDataMap().get(appendPropId);
+                if (affixData != null) {
+                    layer.add(affixData.getFightProp(), affixData.getPropValue());
+                }
+            }
+        }
+    }
+
+    private void updateRelicSets(int[] setIds) {
+        Layer layer = this.relicSets;
+        if (!layer.reset(setIds.clone())) {
+            return;
+        }
+
+        for (int i = 0; i < setIds.length; i++) {
+            int setId = setIds[i];
+            if (setId <= 0) continue;
+
+            // Count each set once, at its first slot
+            int amount = 0;
+            boolean seen = false;
+            for (int j = 0; j < setIds.length; j++) {
+                if (setIds[j] != setId) continue;
+                if (j < i) {
+                    seen = true;
+                    break;
+                }
+                amount++;
+            }
+            if (seen) continue;
+
+            ReliquarySetData setData = GameData.getReliquarySetDataMap().get(setId);
+            if (setData == null) continue;
+
+            // Add affix data from set bonus
+            int[] setNeedNum = setData.getSetNeedNum();
+            for (int setIndex = 0; setIndex < setNeedNum.length; setIndex++) {
+                if (amount < setNeedNum[setIndex]) break;
+
+                int affixId = (setData.getEquipAffixId() * 10) + setIndex;
+                EquipAffixData affix = GameData.getEquipAffixDataMap().get(affixId);
+                if (affix == null) {
+                    continue;
+                }
+
+                for (FightPropData prop : affix.getAddProps()) {
+                    layer.add(prop.getProp(), prop.getValue());
+                }
+                addAbilityEmbryos(affix.getOpenConfig(), true, layer.embryos);
+            }
+        }
+    }
+
+    private void updateWeapon(GameItem weapon) {
+        Layer layer = this.weapon;
+        if (weapon == null) {
+            layer.reset(0);
+            return;
+        }
+
+        List<Integer> affixes = weapon.getAffixes();
+        int[] key = new int[4 + (affixes != null ? affixes.size() : 0)];
+        key[0] = weapon.getItemId();
+        key[1] = weapon.getLevel();
+        key[2] = weapon.getPromoteLevel();
+        key[3] = weapon.getRefinement();
+        for (int i = 4; i < key.length; i++) {
+            key[i] = affixes.get(i - 4);
+        }
+        if (!layer.reset(key)) {
+            return;
+        }
+
+        // Add stats
+        WeaponCurveData curveData = GameData.getWeaponCurveDataMap().get(weapon.getLevel());
+        if (curveData != null) {
+            for (WeaponProperty weaponProperty : weapon.getItemData().getWeaponProperties()) {
+                layer.add(weaponProperty.getPropType(), weaponProperty.getInitValue() * curveData.getMultByProp(weaponProperty.getType()));
+            }
+        }
+        // Weapon promotion stats
+        WeaponPromoteData wepPromoteData = GameData.getWeaponPromoteData(weapon.getItemData().getWeaponPromoteId(), weapon.getPromoteLevel());
+        if (wepPromoteData != null) {
+            for (FightPropData prop : wepPromoteData.getAddProps()) {
+                if (prop.getValue() == 0f || prop.getProp() == null) {
+                    continue;
+                }
+                layer.add(prop.getProp(), prop.getValue());
+            }
+        }
+        // Add weapon skill from affixes
+        if (affixes != null) {
+            // Weapons usually dont have more than one affix but just in case...
+            for (int af : affixes) {
+                if (af == 0) {
+                    continue;
+                }
+                // Calculate affix id
+                int affixId = (af * 10) + weapon.getRefinement();
+                EquipAffixData affix = GameData.getEquipAffixDataMap().get(affixId);
+                if (affix == null) {
+                    continue;
+                }
+
+                for (FightPropData prop : affix.getAddProps()) {
+                    layer.add(prop.getProp(), prop.getValue());
+                }
+                addAbilityEmbryos(affix.getOpenConfig(), true, layer.embryos);
+            }
+        }
+    }
+
+    private void updateProudSkills(Avatar avatar) {
+        Layer layer = this.proudSkills;
+        int[] key = avatar.getProudSkillList().stream().mapToInt(Integer::intValue).sorted().toArray();
+        if (!layer.reset(key)) {
+            return;
+        }
+
+        for (int proudSkillId : key) {
+            ProudSkillData proudSkillData = GameData.getProudSkillDataMap().get(proudSkillId);
+            if (proudSkillData == null) {
+                continue;
+            }
+
+            for (FightPropData prop : proudSkillData.getAddProps()) {
+                layer.add(prop.getProp(), prop.getValue());
+            }
+            addAbilityEmbryos(proudSkillData.getOpenConfig(), false, layer.embryos);
+        }
+    }
+
+    /**
+     * Resolves the abilities added by an open config.
+     * @param forceAdd Adds the config string itself if it has no open config entry.
+     */
+    static void addAbilityEmbryos(String openConfig, boolean forceAdd, Collection<String> embryos) {
+        if (openConfig == null || openConfig.length() == 0) {
+            return;
+        }
+
+        OpenConfigEntry entry = GameData.getOpenConfigEntries().get(openConfig);
+        if (entry == null) {
+            if (forceAdd) {
+                // Add config string to ability skill list anyways
+                embryos.add(openConfig);
+            }
+            return;
+        }
+
+        if (entry.getAddAbilities() != null) {
+            for (String ability : entry.getAddAbilities()) {
+                embryos.add(ability);
+            }
+        }
+    }
+
+    private static final class Layer {
+        private final float[] values = new float[PROPS.length];
+        private final List<String> embryos = new ArrayList<>();
+        private int[] key;
+
+        /**
+         * Clears the layer if it was built from different inputs.
+         * @return True if the layer has to be rebuilt.
+         */
+        private boolean reset(int... key) {
+            if (Arrays.equals(this.key, key)) {
+                return false;
+            }
+
+            this.key = key;
+            Arrays.fill(this.values, 0f);
+            this.embryos.clear();
+            return true;
+        }
+
+        private void add(FightProperty prop, float value) {
+            if (prop != null) {
+                this.values[prop.ordinal()] += value;
+            }
+        }
+
+        private void addTo(float[] total, Collection<String> embryos) {
+            for (int i = 0; i < total.length; i++) {
+                total[i] += this.values[i];
+            }
+            embryos.addAll(this.embryos);
+        }
+    }
+}
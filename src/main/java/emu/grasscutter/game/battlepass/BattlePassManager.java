@@ -7,6 +7,7 @@ import java.time.ZoneId;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +16,7 @@ import org.bson.types.ObjectId;
 import dev.morphia.annotations.Entity;
 import dev.morphia.annotations.Id;
 import dev.morphia.annotations.Indexed;
+import dev.morphia.annotations.Transient;
 import emu.grasscutter.GameConstants;
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.data.GameData;
@@ -35,6 +37,7 @@ import emu.grasscutter.net.proto.BattlePassCycleOuterClass.BattlePassCycle;
 import emu.grasscutter.net.proto.BattlePassUnlockStatusOuterClass.BattlePassUnlockStatus;
 import emu.grasscutter.net.proto.BattlePassRewardTakeOptionOuterClass.BattlePassRewardTakeOption;
 import emu.grasscutter.net.proto.BattlePassScheduleOuterClass.BattlePassSchedule;
+import emu.grasscutter.server.game.GameSessionManager;
 import emu.grasscutter.server.packet.send.PacketBattlePassCurScheduleUpdateNotify;
 import emu.grasscutter.server.packet.send.PacketBattlePassMissionUpdateNotify;
 import emu.grasscutter.server.packet.send.PacketTakeBattlePassRewardRsp;
@@ -56,6 +59,9 @@ public class BattlePassManager extends BasePlayerDataManager {
     private Map<Integer, BattlePassMission> missions;
     private Map<Integer, BattlePassReward> takenRewards;
 
+    // Missions changed since the last flush, keyed by mission id
+    @Transient private final Map<Integer, BattlePassMission> updatedMissions = new LinkedHashMap<>();
+
     @Deprecated // Morphia only
     public BattlePassManager() {}
 
@@ -149,6 +155,40 @@ public class BattlePassManager extends BasePlayerDataManager {
         getPlayer().getServer().getBattlePassSystem().triggerMission(getPlayer(), triggerType, param, progress);
     }
 
+    public synchronized void markMissionUpdated(BattlePassMission mission) {
+        this.updatedMissions.put(mission.getId(), mission);
+    }
+
+    /**
+     * Saves and notifies all missions that progressed since the last call.
+     * Called every player tick, so many triggers in one tick cost a single write and packet.
+     * The write runs on the logic thread, where the missions are changed, so it never sees them half updated.
+     */
+    public void flushMissionUpdates() {
+        List<BattlePassMission> updated;
+        synchronized (this) {
+            if (this.updatedMissions.isEmpty()) return;
+
+            updated = new ArrayList<>(this.updatedMissions.values());
+            this.updatedMissions.clear();
+        }
+
+        Runnable flush = () -> {
+            // Save to db
+            this.save();
+
+            // Packet
+            getPlayer().sendPacket(new PacketBattlePassMissionUpdateNotify(updated));
+        };
+
+        // Inline on the logic thread, so a logout there has saved the missions before it returns
+        if (GameSessionManager.isLogicThread()) {
+            flush.run();
+        } else {
+            GameSessionManager.executeOnLogicThread(flush);
+        }
+    }
+
     // Handlers
     public void takeMissionPoint(List<Integer> missionIdList) {
         // Obvious exploit check
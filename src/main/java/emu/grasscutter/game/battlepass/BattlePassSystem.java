@@ -1,33 +1,32 @@
 package emu.grasscutter.game.battlepass;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
 import emu.grasscutter.data.GameData;
 import emu.grasscutter.data.excels.BattlePassMissionData;
 import emu.grasscutter.game.player.Player;
-import emu.grasscutter.game.props.BattlePassMissionRefreshType;
 import emu.grasscutter.game.props.BattlePassMissionStatus;
 import emu.grasscutter.game.props.WatcherTriggerType;
 import emu.grasscutter.server.game.BaseGameSystem;
 import emu.grasscutter.server.game.GameServer;
-import emu.grasscutter.server.packet.send.PacketBattlePassMissionUpdateNotify;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 
 public class BattlePassSystem extends BaseGameSystem {
-    private final Map<WatcherTriggerType, List<BattlePassMissionData>> cachedTriggers;
+    private final Map<WatcherTriggerType, TriggerIndex> cachedTriggers;
 
     // BP Mission manager for the server, contains cached triggers so we dont have to load it for each player
     public BattlePassSystem(GameServer server) {
         super(server);
 
-        this.cachedTriggers = new HashMap<>();
+        this.cachedTriggers = new EnumMap<>(WatcherTriggerType.class);
 
         for (BattlePassMissionData missionData : GameData.getBattlePassMissionDataMap().values()) {
             if (missionData.isValidRefreshType()) {
-                List<BattlePassMissionData> triggerList = getTriggers().computeIfAbsent(missionData.getTriggerType(), e -> new ArrayList<>());
-                triggerList.add(missionData);
+                getTriggers().computeIfAbsent(missionData.getTriggerType(), e -> new TriggerIndex()).add(missionData);
             }
         }
     }
@@ -36,7 +35,7 @@ public class BattlePassSystem extends BaseGameSystem {
         return server;
     }
 
-    private Map<WatcherTriggerType, List<BattlePassMissionData>> getTriggers() {
+    private Map<WatcherTriggerType, TriggerIndex> getTriggers() {
         return cachedTriggers;
     }
 
@@ -45,20 +44,20 @@ public class BattlePassSystem extends BaseGameSystem {
     }
 
     public void triggerMission(Player player, WatcherTriggerType triggerType, int param, int progress) {
-        List<BattlePassMissionData> triggerList = getTriggers().get(triggerType);
+        TriggerIndex index = getTriggers().get(triggerType);
+
+        if (index == null) return;
+
+        // Skip params check if param == 0
+        List<BattlePassMissionData> triggerList = param == 0 ? index.all : index.byMainParam.get(param);
 
         if (triggerList == null || triggerList.isEmpty()) return;
 
-        for (BattlePassMissionData data : triggerList) {
-            // Skip params check if param == 0
-            if (param != 0) {
-                if (!data.getMainParams().contains(param)) {
-                    continue;
-                }
-            }
+        BattlePassManager manager = player.getBattlePassManager();
 
+        for (BattlePassMissionData data : triggerList) {
             // Get mission from player, if it doesnt exist, then we make one
-            BattlePassMission mission = player.getBattlePassManager().loadMissionById(data.getId());
+            BattlePassMission mission = manager.loadMissionById(data.getId());
 
             if (mission.isFinshed()) continue;
 
@@ -69,11 +68,26 @@ public class BattlePassSystem extends BaseGameSystem {
                 mission.setStatus(BattlePassMissionStatus.MISSION_STATUS_FINISHED);
             }
 
-            // Save to db
-            player.getBattlePassManager().save();
+            // Saved and sent in one go on the next player tick
+            manager.markMissionUpdated(mission);
+        }
+    }
+
+    /**
+     * Missions of one trigger type, looked up by the first trigger param.
+     */
+    private static class TriggerIndex {
+        private final List<BattlePassMissionData> all = new ArrayList<>();
+        private final Int2ObjectMap<List<BattlePassMissionData>> byMainParam = new Int2ObjectOpenHashMap<>();
+
+        private void add(BattlePassMissionData data) {
+            this.all.add(data);
 
-            // Packet
-            player.sendPacket(new PacketBattlePassMissionUpdateNotify(mission));
+            if (data.getMainParams() == null) return;
+
+            for (int param : data.getMainParams()) {
+                this.byMainParam.computeIfAbsent(param, p -> new ArrayList<>()).add(data);
+            }
         }
     }
 }
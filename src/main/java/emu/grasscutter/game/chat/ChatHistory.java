@@ -0,0 +1,54 @@
+package emu.grasscutter.game.chat;
+
+import emu.grasscutter.net.proto.ChatInfoOuterClass.ChatInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The latest messages of a conversation, kept in a fixed-capacity ring buffer.
+ */
+public final class ChatHistory {
+    private final ChatInfo[] messages;
+    private int start = 0;
+    private int size = 0;
+
+    public ChatHistory(int capacity) {
+        this.messages = new ChatInfo[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Adds a message, dropping the oldest one if the history is full.
+     * @return True if a message was dropped.
+     */
+    public synchronized boolean add(ChatInfo info) {
+        if (this.size < this.messages.length) {
+            this.messages[(this.start + this.size++) % this.messages.length] = info;
+            return false;
+        }
+
+        this.messages[this.start] = info;
+        this.start = (this.start + 1) % this.messages.length;
+        return true;
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * @return Up to the given amount of the latest messages, oldest first.
+     */
+    public synchronized List<ChatInfo> getLatest(int count) {
+        int length = Math.min(count, this.size);
+        List<ChatInfo> latest = new ArrayList<>(length);
+        for (int i = this.size - length; i < this.size; i++) {
+            latest.add(this.messages[(this.start + i) % this.messages.length]);
+        }
+        return latest;
+    }
+
+    public List<ChatInfo> getAll() {
+        return this.getLatest(Integer.MAX_VALUE);
+    }
+}
@@ -1,7 +1,9 @@
 package emu.grasscutter.game.chat;
 
+import com.google.protobuf.InvalidProtocolBufferException;
 import emu.grasscutter.GameConstants;
 import emu.grasscutter.command.CommandMap;
+import emu.grasscutter.database.DatabaseHelper;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.net.proto.ChatInfoOuterClass.ChatInfo;
 import emu.grasscutter.server.game.GameServer;
@@ -15,10 +17,11 @@ import java.util.regex.Pattern;
 
 import static emu.grasscutter.config.Configuration.*;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ChatSystem implements ChatSystemHandler {
     static final String PREFIXES = "[/!]";
@@ -26,8 +29,11 @@ public class ChatSystem implements ChatSystemHandler {
     static final Pattern RE_COMMANDS = Pattern.compile("\n" + PREFIXES);
 
     // We store the chat history for ongoing sessions in the form
-    //    user id -> chat partner id -> [messages]
-    private final Map<Integer, Map<Integer, List<ChatInfo>>> history = new HashMap<>();
+    //    user id -> chat partner id -> latest messages
+    private final Map<Integer, Map<Integer, ChatHistory>> history = new ConcurrentHashMap<>();
+
+    private static final LongAdder storedMessages = new LongAdder();
+    private static final LongAdder droppedMessages = new LongAdder();
 
     private final GameServer server;
 
@@ -50,33 +56,118 @@ public class ChatSystem implements ChatSystemHandler {
     /********************
      * Chat history handling
      ********************/
+    private Map<Integer, ChatHistory> getHistory(int uid) {
+        return this.history.computeIfAbsent(uid, x -> new ConcurrentHashMap<>());
+    }
+
+    private ChatHistory getHistory(int uid, int partnerId) {
+        return this.getHistory(uid).computeIfAbsent(partnerId, x -> new ChatHistory(GAME_OPTIONS.chatHistoryLimit));
+    }
+
     private void putInHistory(int uid, int partnerId, ChatInfo info) {
-        this.history.computeIfAbsent(uid, x -> new HashMap<>())
-                    .computeIfAbsent(partnerId, x -> new ArrayList<>())
-                    .add(info);
+        if (this.getHistory(uid, partnerId).add(info)) {
+            droppedMessages.increment();
+        } else {
+            storedMessages.increment();
+        }
     }
 
     public void clearHistoryOnLogout(Player player) {
-        this.history.remove(player.getUid());
+        var conversations = this.discardHistory(player.getUid());
+        if (conversations == null) return;
+
+        this.persistHistory(player.getUid(), conversations);
+    }
+
+    public void discardHistory(Player player) {
+        this.discardHistory(player.getUid());
+    }
+
+    private Map<Integer, ChatHistory> discardHistory(int uid) {
+        var conversations = this.history.remove(uid);
+        if (conversations != null) {
+            conversations.values().forEach(chat -> storedMessages.add(-chat.size()));
+        }
+        return conversations;
+    }
+
+    /**
+     * @return The number of chat messages currently held in memory.
+     */
+    public static long getStoredMessages() {
+        return storedMessages.sum();
+    }
+
+    /**
+     * @return The number of chat messages dropped because their conversation was full.
+     */
+    public static long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    /********************
+     * Persisted history
+     ********************/
+    public void loadHistoryOnLogin(Player player) {
+        if (GAME_OPTIONS.chatHistoryPersisted <= 0) return;
+
+        var persisted = DatabaseHelper.getChatHistory(player.getUid());
+        if (persisted == null || persisted.getConversations() == null) return;
+
+        Map<Integer, ChatHistory> conversations = new ConcurrentHashMap<>();
+        persisted.getConversations().forEach((partnerId, messages) -> {
+            var chat = new ChatHistory(GAME_OPTIONS.chatHistoryLimit);
+            for (byte[] message : messages) {
+                try {
+                    chat.add(ChatInfo.parseFrom(message));
+                } catch (InvalidProtocolBufferException ignored) {}
+            }
+            storedMessages.add(chat.size());
+            conversations.put(Integer.parseInt(partnerId), chat);
+        });
+
+        // Replaces what an earlier login left behind if it never reached the game.
+        var previous = this.history.put(player.getUid(), conversations);
+        if (previous != null) {
+            previous.values().forEach(chat -> storedMessages.add(-chat.size()));
+        }
+    }
+
+    private void persistHistory(int uid, Map<Integer, ChatHistory> conversations) {
+        if (GAME_OPTIONS.chatHistoryPersisted <= 0) return;
+
+        // Only private conversations are kept, the server sends its welcome messages on every login.
+        Map<String, List<byte[]>> tails = new HashMap<>();
+        conversations.forEach((partnerId, chat) -> {
+            if (partnerId == GameConstants.SERVER_CONSOLE_UID) return;
+
+            var messages = chat.getLatest(GAME_OPTIONS.chatHistoryPersisted);
+            if (!messages.isEmpty()) {
+                tails.put(partnerId.toString(), messages.stream().map(ChatInfo::toByteArray).toList());
+            }
+        });
+
+        if (tails.isEmpty()) {
+            DatabaseHelper.deleteChatHistory(uid);
+        } else {
+            DatabaseHelper.saveChatHistory(new PersistedChatHistory(uid, tails));
+        }
     }
 
     public void handlePullPrivateChatReq(Player player, int partnerId) {
-        var chatHistory = this.history.computeIfAbsent(player.getUid(), x -> new HashMap<>())
-                                .computeIfAbsent(partnerId, x -> new ArrayList<>());
-        player.sendPacket(new PacketPullPrivateChatRsp(chatHistory));
+        player.sendPacket(new PacketPullPrivateChatRsp(this.getHistory(player.getUid(), partnerId).getAll()));
     }
 
     public void handlePullRecentChatReq(Player player) {
         // If this user has no chat history yet, create it by sending the server welcome messages.
-        if (!this.history.computeIfAbsent(player.getUid(), x -> new HashMap<>()).containsKey(GameConstants.SERVER_CONSOLE_UID)) {
+        if (!this.getHistory(player.getUid()).containsKey(GameConstants.SERVER_CONSOLE_UID)) {
             this.sendServerWelcomeMessages(player);
         }
 
         // For now, we send the list three messages from the server for the recent chat history.
         // This matches the previous behavior, but ultimately, we should probably keep track of the last chat partner
         // for every given player and return the last messages exchanged with that partner.
-        int historyLength = this.history.get(player.getUid()).get(GameConstants.SERVER_CONSOLE_UID).size();
-        var messages = this.history.get(player.getUid()).get(GameConstants.SERVER_CONSOLE_UID).subList(Math.max(historyLength - 3, 0), historyLength);
+        var messages = this.getHistory(player.getUid(), GameConstants.SERVER_CONSOLE_UID).getLatest(3);
         player.sendPacket(new PacketPullRecentChatRsp(messages));
     }
 
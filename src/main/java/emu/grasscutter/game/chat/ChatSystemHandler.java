@@ -13,5 +13,9 @@ public interface ChatSystemHandler {
     void sendPrivateMessageFromServer(int targetUid, int emote);
     void handlePullPrivateChatReq(Player player, int targetUid);
     void clearHistoryOnLogout(Player player);
+    /* Called off the logic thread while the player logs in. */
+    default void loadHistoryOnLogin(Player player) {}
+    /* Called if the player disconnected before the login finished. */
+    default void discardHistory(Player player) {}
     void handlePullRecentChatReq(Player player);
 }
@@ -0,0 +1,26 @@
+package emu.grasscutter.game.chat;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The tail of a player's private conversations, kept between sessions.
+ * Messages are stored as serialized ChatInfo, by partner uid.
+ */
+@Entity(value = "chat_history", useDiscriminator = false)
+public class PersistedChatHistory {
+    @Id @Getter private int ownerUid;
+    @Getter private Map<String, List<byte[]>> conversations;
+
+    @Deprecated // Morphia only
+    public PersistedChatHistory() {}
+
+    public PersistedChatHistory(int ownerUid, Map<String, List<byte[]>> conversations) {
+        this.ownerUid = ownerUid;
+        this.conversations = conversations;
+    }
+}
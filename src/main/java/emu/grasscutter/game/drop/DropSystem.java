@@ -2,12 +2,10 @@ package emu.grasscutter.game.drop;
 
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.data.DataLoader;
-import emu.grasscutter.data.GameData;
 import emu.grasscutter.data.excels.ItemData;
 import emu.grasscutter.game.entity.EntityItem;
 import emu.grasscutter.game.entity.EntityMonster;
 import emu.grasscutter.game.inventory.GameItem;
-import emu.grasscutter.game.inventory.ItemType;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.props.ActionReason;
 import emu.grasscutter.game.world.Scene;
@@ -16,12 +14,19 @@ import emu.grasscutter.server.game.GameServer;
 import emu.grasscutter.utils.Position;
 import emu.grasscutter.utils.Utils;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 public class DropSystem extends BaseGameSystem {
     private final Int2ObjectMap<List<DropData>> dropData;
+    private volatile Int2ObjectMap<DropTable> dropTables = Int2ObjectMaps.emptyMap();
+    private volatile Random random = Utils.random;
 
     public DropSystem(GameServer server) {
         super(server);
@@ -48,59 +53,87 @@ public class DropSystem extends BaseGameSystem {
         } catch (Exception e) {
             Grasscutter.getLogger().error("Unable to load drop data.", e);
         }
+        this.buildDropTables();
     }
-    private void addDropEntity(DropData dd, Scene dropScene, ItemData itemData, Position pos, int num, Player target) {
-        if (!dd.isGive() && (itemData.getItemType() != ItemType.ITEM_VIRTUAL || itemData.getGadgetId() != 0)) {
-            EntityItem entity = new EntityItem(dropScene, target, itemData, pos, num, dd.isShare());
-            if (!dd.isShare())
-                dropScene.addEntityToSingleClient(target, entity);
-            else
-                dropScene.addEntity(entity);
-        } else {
-            if (target != null) {
-                target.getInventory().addItem(new GameItem(itemData, num), ActionReason.SubfieldDrop, true);
-            } else {
-                // target is null if items will be added are shared. no one could pick it up because of the combination(give + shared)
-                // so it will be sent to all players' inventories directly.
-                dropScene.getPlayers().forEach(x -> x.getInventory().addItem(new GameItem(itemData, num), ActionReason.SubfieldDrop, true));
+
+    /**
+     * Compiles the drop data of every monster once, so kills neither look up item data
+     * nor roll for entries that can never drop.
+     */
+    private void buildDropTables() {
+        Int2ObjectMap<DropTable> tables = new Int2ObjectOpenHashMap<>();
+        for (Int2ObjectMap.Entry<List<DropData>> entry : getDropData().int2ObjectEntrySet()) {
+            DropTable table = DropTable.compile(entry.getValue());
+            if (table != null) {
+                tables.put(entry.getIntKey(), table);
             }
         }
+        this.dropTables = tables;
     }
 
-    private void processDrop(DropData dd, EntityMonster em, Player gp) {
-        int target = Utils.randomRange(1, 10000);
-        if (target >= dd.getMinWeight() && target < dd.getMaxWeight()) {
-            ItemData itemData = GameData.getItemDataMap().get(dd.getItemId());
-            int num = Utils.randomRange(dd.getMinCount(), dd.getMaxCount());
+    public DropTable getDropTable(int monsterId) {
+        return this.dropTables.get(monsterId);
+    }
 
-            if (itemData == null) {
-                return;
-            }
+    /**
+     * Makes drop outcomes reproducible, e.g. to verify them in tests.
+     * @param seed Seed of the drop rolls.
+     */
+    public void setRandomSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    private void addDropEntity(DropTable.Entry entry, EntityMonster em, int num, Player target, List<EntityItem> drops) {
+        Scene dropScene = em.getScene();
+        ItemData itemData = entry.itemData();
+        if (entry.spawnsEntity()) {
             if (itemData.isEquip()) {
+                float range = (2.5f + (.05f * num));
                 for (int i = 0; i < num; i++) {
-                    float range = (2.5f + (.05f * num));
                     Position pos = em.getPosition().nearby2d(range).addY(3f);
-                    addDropEntity(dd, em.getScene(), itemData, pos, num, gp);
+                    drops.add(new EntityItem(dropScene, target, itemData, pos, num, entry.share()));
                 }
             } else {
                 Position pos = em.getPosition().clone().addY(3f);
-                addDropEntity(dd, em.getScene(), itemData, pos, num, gp);
+                drops.add(new EntityItem(dropScene, target, itemData, pos, num, entry.share()));
+            }
+        } else {
+            // Equipment is given once per copy, like it would be picked up
+            int copies = itemData.isEquip() ? num : 1;
+            for (int i = 0; i < copies; i++) {
+                if (target != null) {
+                    target.getInventory().addItem(new GameItem(itemData, num), ActionReason.SubfieldDrop, true);
+                } else {
+                    // target is null if items will be added are shared. no one could pick it up because of the combination(give + shared)
+                    // so it will be sent to all players' inventories directly.
+                    dropScene.getPlayers().forEach(x -> x.getInventory().addItem(new GameItem(itemData, num), ActionReason.SubfieldDrop, true));
+                }
             }
         }
     }
 
+    /**
+     * Rolls the drops of a killed monster and spawns them in one batch,
+     * so every player receives a single appear notify.
+     */
     public void callDrop(EntityMonster em) {
-        int id = em.getMonsterData().getId();
-        if (getDropData().containsKey(id)) {
-            for (DropData dd : getDropData().get(id)) {
-                if (dd.isShare())
-                    processDrop(dd, em, null);
-                else {
-                    for (Player gp : em.getScene().getPlayers()) {
-                        processDrop(dd, em, gp);
-                    }
-                }
+        DropTable table = this.dropTables.get(em.getMonsterData().getId());
+        if (table == null) return;
+
+        Scene scene = em.getScene();
+        Random random = this.random;
+        List<EntityItem> shared = new ArrayList<>();
+        Map<Player, List<EntityItem>> personal = new HashMap<>();
+        if (table.hasShared()) {
+            table.rollShared(random, (entry, num) -> addDropEntity(entry, em, num, null, shared));
+        }
+        if (table.hasPersonal()) {
+            for (Player gp : scene.getPlayers()) {
+                List<EntityItem> drops = personal.computeIfAbsent(gp, p -> new ArrayList<>());
+                table.rollPersonal(random, (entry, num) -> addDropEntity(entry, em, num, gp, drops));
             }
         }
+
+        scene.addEntities(shared, personal);
     }
 }
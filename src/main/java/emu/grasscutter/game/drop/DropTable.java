@@ -0,0 +1,94 @@
+package emu.grasscutter.game.drop;
+
+import emu.grasscutter.data.GameData;
+import emu.grasscutter.data.excels.ItemData;
+import emu.grasscutter.game.inventory.ItemType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Immutable drops of a single monster, compiled from Drop.json when it is loaded.
+ * <p>
+ * Every entry is rolled on its own, so entries keep their own chance instead of
+ * sharing one weighted table. Shared and personal entries are split up front,
+ * since shared ones are rolled once per kill and personal ones once per player.
+ */
+public final class DropTable {
+    public static final int MAX_ROLL = 10000;
+
+    private final Entry[] shared;
+    private final Entry[] personal;
+
+    private DropTable(Entry[] shared, Entry[] personal) {
+        this.shared = shared;
+        this.personal = personal;
+    }
+
+    /**
+     * @return The compiled table, or null if none of the entries can ever drop.
+     */
+    public static DropTable compile(List<DropData> dropData) {
+        List<Entry> shared = new ArrayList<>();
+        List<Entry> personal = new ArrayList<>();
+        for (DropData dd : dropData) {
+            // Rolls are between 1 and MAX_ROLL, skip entries that can never be hit
+            if (Math.max(dd.getMinWeight(), 1) >= Math.min(dd.getMaxWeight(), MAX_ROLL + 1)) continue;
+
+            ItemData itemData = GameData.getItemDataMap().get(dd.getItemId());
+            if (itemData == null) continue;
+
+            boolean spawnsEntity = !dd.isGive() && (itemData.getItemType() != ItemType.ITEM_VIRTUAL || itemData.getGadgetId() != 0);
+            Entry entry = new Entry(itemData, dd.getMinWeight(), dd.getMaxWeight(), dd.getMinCount(),
+                Math.max(dd.getMaxCount() - dd.getMinCount() + 1, 1), dd.isShare(), spawnsEntity);
+            (dd.isShare() ? shared : personal).add(entry);
+        }
+
+        if (shared.isEmpty() && personal.isEmpty()) return null;
+        return new DropTable(shared.toArray(Entry[]::new), personal.toArray(Entry[]::new));
+    }
+
+    public boolean hasShared() {
+        return this.shared.length > 0;
+    }
+
+    public boolean hasPersonal() {
+        return this.personal.length > 0;
+    }
+
+    /**
+     * Rolls the entries shared by every player in the scene.
+     */
+    public void rollShared(Random random, DropConsumer consumer) {
+        roll(this.shared, random, consumer);
+    }
+
+    /**
+     * Rolls the entries dropped for a single player.
+     */
+    public void rollPersonal(Random random, DropConsumer consumer) {
+        roll(this.personal, random, consumer);
+    }
+
+    private static void roll(Entry[] entries, Random random, DropConsumer consumer) {
+        for (Entry entry : entries) {
+            int roll = random.nextInt(MAX_ROLL) + 1;
+            if (roll >= entry.minWeight() && roll < entry.maxWeight()) {
+                consumer.accept(entry, entry.minCount() + random.nextInt(entry.countRange()));
+            }
+        }
+    }
+
+    /**
+     * @param countRange Number of possible counts, starting at minCount.
+     * @param spawnsEntity True if the item drops on the ground instead of going to the inventory.
+     */
+    public record Entry(ItemData itemData, int minWeight, int maxWeight, int minCount, int countRange,
+                        boolean share, boolean spawnsEntity) {}
+
+    @FunctionalInterface
+    public interface DropConsumer {
+        void accept(Entry entry, int count);
+    }
+}
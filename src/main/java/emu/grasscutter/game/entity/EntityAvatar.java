@@ -1,5 +1,6 @@
 package emu.grasscutter.game.entity;
 
+import emu.grasscutter.Grasscutter;
 import emu.grasscutter.GameConstants;
 import emu.grasscutter.data.GameData;
 import emu.grasscutter.data.excels.AvatarData;
@@ -10,6 +11,7 @@ import emu.grasscutter.game.inventory.GameItem;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.props.EntityIdType;
 import emu.grasscutter.game.props.FightProperty;
+import emu.grasscutter.game.props.FightPropertyVector;
 import emu.grasscutter.game.props.PlayerProperty;
 import emu.grasscutter.game.world.Scene;
 import emu.grasscutter.net.proto.AbilityControlBlockOuterClass.AbilityControlBlock;
@@ -37,8 +39,6 @@ import emu.grasscutter.server.packet.send.PacketEntityFightPropUpdateNotify;
 import emu.grasscutter.utils.Position;
 import emu.grasscutter.utils.ProtoHelper;
 import emu.grasscutter.utils.Utils;
-import it.unimi.dsi.fastutil.ints.Int2FloatMap;
-import it.unimi.dsi.fastutil.ints.Int2FloatOpenHashMap;
 import lombok.val;
 
 public class EntityAvatar extends GameEntity {
@@ -97,7 +97,7 @@ public class EntityAvatar extends GameEntity {
     }
 
     @Override
-    public Int2FloatOpenHashMap getFightProperties() {
+    public FightPropertyVector getFightProperties() {
         return getAvatar().getFightProperties();
     }
 
@@ -353,4 +353,13 @@ public class EntityAvatar extends GameEntity {
         // Set position and rotation.
         super.move(event.getDestination(), rotation);
     }
+
+    @Override public void move(Vector position, Vector rotation) {
+        // Only build the positions for the move event if a plugin listens to it.
+        if (Grasscutter.getPluginManager().hasListeners(PlayerMoveEvent.class)) {
+            this.move(new Position(position), new Position(rotation));
+        } else {
+            super.move(position, rotation);
+        }
+    }
 }
@@ -8,6 +8,7 @@ import emu.grasscutter.game.entity.gadget.platform.BaseRoute;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.props.EntityIdType;
 import emu.grasscutter.game.props.EntityType;
+import emu.grasscutter.game.props.FightPropertyVector;
 import emu.grasscutter.game.props.PlayerProperty;
 import emu.grasscutter.game.world.Scene;
 import emu.grasscutter.net.proto.AbilitySyncStateInfoOuterClass.AbilitySyncStateInfo;
@@ -33,7 +34,6 @@ import emu.grasscutter.server.packet.send.PacketPlatformStopRouteNotify;
 import emu.grasscutter.server.packet.send.PacketSceneTimeNotify;
 import emu.grasscutter.utils.Position;
 import emu.grasscutter.utils.ProtoHelper;
-import it.unimi.dsi.fastutil.ints.Int2FloatOpenHashMap;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -53,7 +53,7 @@ public class EntityGadget extends EntityBaseGadget {
     private int state;
     private int pointType;
     private GadgetContent content;
-    private Int2FloatOpenHashMap fightProp;
+    private FightPropertyVector fightProp;
     private SceneGadget metaGadget;
     @Nullable @Getter
     private ConfigGadget configGadget;
@@ -72,6 +72,7 @@ public class EntityGadget extends EntityBaseGadget {
         this.rot = rot != null ? rot.clone() : new Position();
         this.bornRot = this.rot.clone();
         fillFightProps(configGadget);
+        if (this.fightProp != null) this.fightProp.clearChanges();
     }
 
     public EntityGadget(Scene scene, int gadgetId, Position pos) {
@@ -165,8 +166,8 @@ public class EntityGadget extends EntityBaseGadget {
     }
 
     @Override
-    public Int2FloatOpenHashMap getFightProperties() {
-        if (this.fightProp == null) this.fightProp = new Int2FloatOpenHashMap();
+    public FightPropertyVector getFightProperties() {
+        if (this.fightProp == null) this.fightProp = new FightPropertyVector();
         return this.fightProp;
     }
 
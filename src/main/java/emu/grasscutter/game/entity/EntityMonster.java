@@ -10,6 +10,7 @@ import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.props.ActionReason;
 import emu.grasscutter.game.props.EntityIdType;
 import emu.grasscutter.game.props.FightProperty;
+import emu.grasscutter.game.props.FightPropertyVector;
 import emu.grasscutter.game.props.PlayerProperty;
 import emu.grasscutter.game.props.WatcherTriggerType;
 import emu.grasscutter.game.quest.enums.QuestContent;
@@ -31,7 +32,6 @@ import emu.grasscutter.scripts.constants.EventType;
 import emu.grasscutter.scripts.data.ScriptArgs;
 import emu.grasscutter.utils.Position;
 import emu.grasscutter.utils.ProtoHelper;
-import it.unimi.dsi.fastutil.ints.Int2FloatOpenHashMap;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -39,7 +39,7 @@ import static emu.grasscutter.scripts.constants.EventType.EVENT_SPECIFIC_MONSTER
 
 public class EntityMonster extends GameEntity {
     private final MonsterData monsterData;
-    private final Int2FloatOpenHashMap fightProp;
+    private final FightPropertyVector fightProp;
 
     private final Position pos;
     private final Position rot;
@@ -54,7 +54,7 @@ public class EntityMonster extends GameEntity {
         super(scene);
         this.id = getWorld().getNextEntityId(EntityIdType.MONSTER);
         this.monsterData = monsterData;
-        this.fightProp = new Int2FloatOpenHashMap();
+        this.fightProp = new FightPropertyVector();
         this.pos = new Position(pos);
         this.rot = new Position();
         this.bornPos = getPosition().clone();
@@ -104,7 +104,7 @@ public class EntityMonster extends GameEntity {
     }
 
     @Override
-    public Int2FloatOpenHashMap getFightProperties() {
+    public FightPropertyVector getFightProperties() {
         return fightProp;
     }
 
@@ -246,6 +246,9 @@ public class EntityMonster extends GameEntity {
 
         // Set current hp
         this.setFightProperty(FightProperty.FIGHT_PROP_CUR_HP, this.getFightProperty(FightProperty.FIGHT_PROP_MAX_HP) * hpPercent);
+
+        // Full stats are sent with the entity info, not as updates
+        this.fightProp.clearChanges();
     }
 
     @Override
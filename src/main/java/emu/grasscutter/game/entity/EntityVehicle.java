@@ -6,6 +6,7 @@ import emu.grasscutter.data.excels.GadgetData;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.props.EntityIdType;
 import emu.grasscutter.game.props.FightProperty;
+import emu.grasscutter.game.props.FightPropertyVector;
 import emu.grasscutter.game.props.PlayerProperty;
 import emu.grasscutter.game.world.Scene;
 import emu.grasscutter.net.proto.AbilitySyncStateInfoOuterClass.AbilitySyncStateInfo;
@@ -24,8 +25,6 @@ import emu.grasscutter.net.proto.VehicleInfoOuterClass.VehicleInfo;
 import emu.grasscutter.net.proto.VehicleMemberOuterClass.VehicleMember;
 import emu.grasscutter.utils.Position;
 import emu.grasscutter.utils.ProtoHelper;
-import it.unimi.dsi.fastutil.ints.Int2FloatMap;
-import it.unimi.dsi.fastutil.ints.Int2FloatOpenHashMap;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -36,7 +35,7 @@ import java.util.List;
 public class EntityVehicle extends EntityBaseGadget {
 
     @Getter private final Player owner;
-    private final Int2FloatMap fightProp;
+    private final FightPropertyVector fightProp;
 
     private final Position pos;
     private final Position rot;
@@ -52,7 +51,7 @@ public class EntityVehicle extends EntityBaseGadget {
         super(scene);
         this.owner = player;
         this.id = getScene().getWorld().getNextEntityId(EntityIdType.GADGET);
-        this.fightProp = new Int2FloatOpenHashMap();
+        this.fightProp = new FightPropertyVector();
         this.pos = new Position(pos);
         this.rot = new Position(rot);
         this.gadgetId = gadgetId;
@@ -65,6 +64,7 @@ public class EntityVehicle extends EntityBaseGadget {
         }
 
         fillFightProps(configGadget);
+        this.fightProp.clearChanges();
     }
 
     @Override
@@ -75,7 +75,7 @@ public class EntityVehicle extends EntityBaseGadget {
     }
 
     @Override
-    public Int2FloatMap getFightProperties() {
+    public FightPropertyVector getFightProperties() {
         return fightProp;
     }
 
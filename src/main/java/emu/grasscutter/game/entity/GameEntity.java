@@ -2,6 +2,7 @@ package emu.grasscutter.game.entity;
 
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.props.FightProperty;
+import emu.grasscutter.game.props.FightPropertyVector;
 import emu.grasscutter.game.props.LifeState;
 import emu.grasscutter.game.world.Scene;
 import emu.grasscutter.game.world.SpawnDataEntry;
@@ -113,6 +114,14 @@ public abstract class GameEntity {
     }
 
     public void addAllFightPropsToEntityInfo(SceneEntityInfo.Builder entityInfo) {
+        if (this.getFightProperties() instanceof FightPropertyVector vector) {
+            vector.forEachProperty((key, value) -> {
+                if (key == 0) return;
+                entityInfo.addFightPropList(FightPropPair.newBuilder().setPropType(key).setPropValue(value).build());
+            });
+            return;
+        }
+
         this.getFightProperties().forEach((key, value) -> {
             if (key == 0) return;
             entityInfo.addFightPropList(FightPropPair.newBuilder().setPropType(key).setPropValue(value).build());
@@ -145,7 +154,7 @@ public abstract class GameEntity {
         float healed = Math.min(maxHp - curHp, amount);
         this.addFightProperty(FightProperty.FIGHT_PROP_CUR_HP, healed);
 
-        this.getScene().broadcastPacket(new PacketEntityFightPropUpdateNotify(this, FightProperty.FIGHT_PROP_CUR_HP));
+        this.broadcastFightPropChanges(FightProperty.FIGHT_PROP_CUR_HP);
 
         return healed;
     }
@@ -182,7 +191,7 @@ public abstract class GameEntity {
         callLuaHPEvent();
 
         // Packets
-        this.getScene().broadcastPacket(new PacketEntityFightPropUpdateNotify(this, FightProperty.FIGHT_PROP_CUR_HP));
+        this.broadcastFightPropChanges(FightProperty.FIGHT_PROP_CUR_HP);
 
         // Check if dead.
         if (isDead) {
@@ -192,6 +201,20 @@ public abstract class GameEntity {
 
     public void callLuaHPEvent(){ }
 
+    /**
+     * Sends the fight properties that changed since the last update to the scene.
+     * Entities that do not track changes only send the given property.
+     * @param prop The property that was just changed.
+     */
+    protected void broadcastFightPropChanges(FightProperty prop) {
+        if (this.getFightProperties() instanceof FightPropertyVector vector) {
+            vector.markChanged(prop);
+            this.getScene().broadcastPacket(new PacketEntityFightPropUpdateNotify(this, vector.pollChanges()));
+        } else {
+            this.getScene().broadcastPacket(new PacketEntityFightPropUpdateNotify(this, prop));
+        }
+    }
+
     /**
      * Move this entity to a new position.
      * @param position The new position.
@@ -203,6 +226,16 @@ public abstract class GameEntity {
         this.getRotation().set(rotation);
     }
 
+    /**
+     * Move this entity to the position sent by the client, updating it in place.
+     * @param position The new position.
+     * @param rotation The new rotation.
+     */
+    public void move(Vector position, Vector rotation) {
+        this.getPosition().set(position);
+        this.getRotation().set(rotation);
+    }
+
     /**
      * Called when a player interacts with this entity
      * @param player Player that is interacting with this entity
@@ -0,0 +1,74 @@
+package emu.grasscutter.game.gacha;
+
+import emu.grasscutter.utils.Utils;
+import lombok.Getter;
+
+/**
+ * Precomputed pull data for a banner: item pools with rate-up items already stripped from
+ * the fallback pools, and the pity weight curves expanded into lookup tables.
+ * Built once when the banners are loaded and shared by all players, so it must not be modified.
+ */
+@Getter
+public final class BannerTable {
+    private final GachaBanner banner;
+
+    private final int[] rateUpItems4;
+    private final int[] rateUpItems5;
+    private final int[] fallbackItems4Pool1;
+    private final int[] fallbackItems4Pool2;
+    private final int[] fallbackItems5Pool1;
+    private final int[] fallbackItems5Pool2;
+
+    private final int[] weights4;
+    private final int[] weights5;
+    private final int[] poolBalanceWeights4;
+    private final int[] poolBalanceWeights5;
+
+    public BannerTable(GachaBanner banner) {
+        this.banner = banner;
+
+        int[] rateUp4 = banner.getRateUpItems4();
+        int[] rateUp5 = banner.getRateUpItems5();
+        int[] fallback4Pool1 = banner.getFallbackItems4Pool1();
+        int[] fallback4Pool2 = banner.getFallbackItems4Pool2();
+        int[] fallback5Pool1 = banner.getFallbackItems5Pool1();
+        int[] fallback5Pool2 = banner.getFallbackItems5Pool2();
+
+        if (banner.isAutoStripRateUpFromFallback()) {
+            fallback4Pool1 = Utils.setSubtract(fallback4Pool1, rateUp4);
+            fallback4Pool2 = Utils.setSubtract(fallback4Pool2, rateUp4);
+            fallback5Pool1 = Utils.setSubtract(fallback5Pool1, rateUp5);
+            fallback5Pool2 = Utils.setSubtract(fallback5Pool2, rateUp5);
+        }
+
+        this.rateUpItems4 = rateUp4;
+        this.rateUpItems5 = rateUp5;
+        this.fallbackItems4Pool1 = fallback4Pool1;
+        this.fallbackItems4Pool2 = fallback4Pool2;
+        this.fallbackItems5Pool1 = fallback5Pool1;
+        this.fallbackItems5Pool2 = fallback5Pool2;
+
+        this.weights4 = banner.getWeightTable(4);
+        this.weights5 = banner.getWeightTable(5);
+        this.poolBalanceWeights4 = banner.getPoolBalanceWeightTable(4);
+        this.poolBalanceWeights5 = banner.getPoolBalanceWeightTable(5);
+    }
+
+    /**
+     * Same as {@link GachaBanner#getWeight(int, int)}, without the interpolation.
+     */
+    public int getWeight(int rarity, int pity) {
+        return lookup((rarity == 4) ? this.weights4 : this.weights5, pity);
+    }
+
+    /**
+     * Same as {@link GachaBanner#getPoolBalanceWeight(int, int)}, without the interpolation.
+     */
+    public int getPoolBalanceWeight(int rarity, int pity) {
+        return lookup((rarity == 4) ? this.poolBalanceWeights4 : this.poolBalanceWeights5, pity);
+    }
+
+    private static int lookup(int[] table, int pity) {
+        return table[Math.max(0, Math.min(pity, table.length - 1))];
+    }
+}
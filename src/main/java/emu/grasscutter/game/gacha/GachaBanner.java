@@ -89,6 +89,14 @@ public class GachaBanner {
         };
     }
 
+    public int[] getWeightTable(int rarity) {
+        return Utils.lerpTable((rarity == 4) ? weights4 : weights5);
+    }
+
+    public int[] getPoolBalanceWeightTable(int rarity) {
+        return Utils.lerpTable((rarity == 4) ? poolBalanceWeights4 : poolBalanceWeights5);
+    }
+
     public int getEventChance(int rarity) {
         return switch (rarity) {
             case 4 -> eventChance4;
@@ -5,8 +5,15 @@ import java.util.Date;
 import org.bson.types.ObjectId;
 
 import dev.morphia.annotations.*;
+import dev.morphia.utils.IndexType;
 
 @Entity(value = "gachas", useDiscriminator = false)
+@Indexes(@Index(fields = {
+    @Field("ownerId"),
+    @Field("gachaType"),
+    @Field(value = "transactionDate", type = IndexType.DESC),
+    @Field(value = "_id", type = IndexType.DESC)
+}))
 public class GachaRecord {
     @Id private ObjectId id;
     
@@ -65,6 +72,37 @@ public class GachaRecord {
         this.id = id;
     }
 
+    /**
+     * @return A string identifying this record's position, used for paging the records page.
+     */
+    public String toCursor() {
+        return this.transactionDate.getTime() + "_" + this.id.toHexString();
+    }
+
+    /**
+     * Parses a cursor created by {@link #toCursor()}.
+     * @return A record holding only the date and id, or null if the cursor is invalid.
+     */
+    public static GachaRecord fromCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        String[] split = cursor.split("_");
+        if (split.length != 2 || !ObjectId.isValid(split[1])) {
+            return null;
+        }
+
+        try {
+            GachaRecord record = new GachaRecord();
+            record.setTransactionDate(new Date(Long.parseLong(split[0])));
+            record.setId(new ObjectId(split[1]));
+            return record;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     public String toString() {
         return toJsonString();
     }
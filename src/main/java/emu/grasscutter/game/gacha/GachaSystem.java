@@ -39,8 +39,13 @@ import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import org.greenrobot.eventbus.Subscribe;
 
+/**
+ * Pity state lives in each player's {@link PlayerGachaInfo}, so pulls only lock that player.
+ * Banners and their {@link BannerTable}s are replaced as a whole when the config is reloaded.
+ */
 public class GachaSystem extends BaseGameSystem {
-    private final Int2ObjectMap<GachaBanner> gachaBanners;
+    private volatile Int2ObjectMap<GachaBanner> gachaBanners;
+    private volatile Int2ObjectMap<BannerTable> bannerTables;
     private WatchService watchService;
 
     private static final int starglitterId = 221;
@@ -51,6 +56,7 @@ public class GachaSystem extends BaseGameSystem {
     public GachaSystem(GameServer server) {
         super(server);
         this.gachaBanners = new Int2ObjectOpenHashMap<>();
+        this.bannerTables = new Int2ObjectOpenHashMap<>();
         this.load();
         this.startWatcher(server);
     }
@@ -68,12 +74,14 @@ public class GachaSystem extends BaseGameSystem {
     }
 
     public synchronized void load() {
-        getGachaBanners().clear();
+        Int2ObjectMap<GachaBanner> loadedBanners = new Int2ObjectOpenHashMap<>();
+        Int2ObjectMap<BannerTable> loadedTables = new Int2ObjectOpenHashMap<>();
         try {
             List<GachaBanner> banners = DataLoader.loadList("Banners.json", GachaBanner.class);
             if (banners.size() > 0) {
                 for (GachaBanner banner : banners) {
-                    getGachaBanners().put(banner.getScheduleId(), banner);
+                    loadedBanners.put(banner.getScheduleId(), banner);
+                    loadedTables.put(banner.getScheduleId(), new BannerTable(banner));
                 }
                 Grasscutter.getLogger().debug("Banners successfully loaded.");
             } else {
@@ -83,9 +91,14 @@ public class GachaSystem extends BaseGameSystem {
             // TODO Auto-generated catch block
             e.printStackTrace();
         }
+
+        // Swap both maps at once so pulls in progress keep using the old banners
+        this.bannerTables = loadedTables;
+        this.gachaBanners = loadedBanners;
     }
 
-    private class BannerPools {
+    // Per-pull copy of the banner table pools, items are removed from it when they reach C6
+    private static class BannerPools {
         public int[] rateUpItems4;
         public int[] rateUpItems5;
         public int[] fallbackItems4Pool1;
@@ -93,20 +106,13 @@ public class GachaSystem extends BaseGameSystem {
         public int[] fallbackItems5Pool1;
         public int[] fallbackItems5Pool2;
 
-        public BannerPools(GachaBanner banner) {
-            rateUpItems4 = banner.getRateUpItems4();
-            rateUpItems5 = banner.getRateUpItems5();
-            fallbackItems4Pool1 = banner.getFallbackItems4Pool1();
-            fallbackItems4Pool2 = banner.getFallbackItems4Pool2();
-            fallbackItems5Pool1 = banner.getFallbackItems5Pool1();
-            fallbackItems5Pool2 = banner.getFallbackItems5Pool2();
-
-            if (banner.isAutoStripRateUpFromFallback()) {
-                fallbackItems4Pool1 = Utils.setSubtract(fallbackItems4Pool1, rateUpItems4);
-                fallbackItems4Pool2 = Utils.setSubtract(fallbackItems4Pool2, rateUpItems4);
-                fallbackItems5Pool1 = Utils.setSubtract(fallbackItems5Pool1, rateUpItems5);
-                fallbackItems5Pool2 = Utils.setSubtract(fallbackItems5Pool2, rateUpItems5);
-            }
+        public BannerPools(BannerTable table) {
+            rateUpItems4 = table.getRateUpItems4();
+            rateUpItems5 = table.getRateUpItems5();
+            fallbackItems4Pool1 = table.getFallbackItems4Pool1();
+            fallbackItems4Pool2 = table.getFallbackItems4Pool2();
+            fallbackItems5Pool1 = table.getFallbackItems5Pool1();
+            fallbackItems5Pool2 = table.getFallbackItems5Pool2();
         }
 
         public void removeFromAllPools(int[] itemIds) {
@@ -119,7 +125,7 @@ public class GachaSystem extends BaseGameSystem {
         }
     }
 
-    private synchronized int[] removeC6FromPool(int[] itemPool, Player player) {
+    private int[] removeC6FromPool(int[] itemPool, Player player) {
         IntList temp = new IntArrayList();
         for (int itemId : itemPool) {
             if (InventorySystem.checkPlayerAvatarConstellationLevel(player, itemId) < 6) {
@@ -129,7 +135,7 @@ public class GachaSystem extends BaseGameSystem {
         return temp.toIntArray();
     }
 
-    private synchronized int drawRoulette(int[] weights, int cutoff) {
+    private int drawRoulette(int[] weights, int cutoff) {
         // This follows the logic laid out in issue #183
         // Simple weighted selection with an upper bound for the roll that cuts off trailing entries
         // All weights must be >= 0
@@ -152,7 +158,7 @@ public class GachaSystem extends BaseGameSystem {
         return 0;  // This should only be reachable if total==0
     }
 
-    private synchronized int doFallbackRarePull(int[] fallback1, int[] fallback2, int rarity, GachaBanner banner, PlayerGachaBannerInfo gachaInfo) {
+    private int doFallbackRarePull(int[] fallback1, int[] fallback2, int rarity, BannerTable table, PlayerGachaBannerInfo gachaInfo) {
         if (fallback1.length < 1) {
             if (fallback2.length < 1) {
                 return getRandom((rarity==5)? fallbackItems5Pool2Default : fallbackItems4Pool2Default);
@@ -162,8 +168,8 @@ public class GachaSystem extends BaseGameSystem {
         } else if (fallback2.length < 1) {
             return getRandom(fallback1);
         } else {  // Both pools are possible, use the pool balancer
-            int pityPool1 = banner.getPoolBalanceWeight(rarity, gachaInfo.getPityPool(rarity, 1));
-            int pityPool2 = banner.getPoolBalanceWeight(rarity, gachaInfo.getPityPool(rarity, 2));
+            int pityPool1 = table.getPoolBalanceWeight(rarity, gachaInfo.getPityPool(rarity, 1));
+            int pityPool2 = table.getPoolBalanceWeight(rarity, gachaInfo.getPityPool(rarity, 2));
             int chosenPool = switch ((pityPool1 >= pityPool2)? 1 : 0) {  // Larger weight must come first for the hard cutoff to function correctly
                 case 1 -> 1 + drawRoulette(new int[] {pityPool1, pityPool2}, 10000);
                 default -> 2 - drawRoulette(new int[] {pityPool2, pityPool1}, 10000);
@@ -179,7 +185,8 @@ public class GachaSystem extends BaseGameSystem {
         }
     }
 
-    private synchronized int doRarePull(int[] featured, int[] fallback1, int[] fallback2, int rarity, GachaBanner banner, PlayerGachaBannerInfo gachaInfo) {
+    private int doRarePull(int[] featured, int[] fallback1, int[] fallback2, int rarity, BannerTable table, PlayerGachaBannerInfo gachaInfo) {
+        GachaBanner banner = table.getBanner();
         int itemId = 0;
         boolean epitomized = (banner.hasEpitomized()) && (rarity == 5) && (gachaInfo.getWishItemId() != 0);
         boolean pityEpitomized = (gachaInfo.getFailedChosenItemPulls() >= banner.getWishMaxProgress());  // Maximum fate points reached
@@ -196,7 +203,7 @@ public class GachaSystem extends BaseGameSystem {
                 itemId = getRandom(featured);
             } else {
                 gachaInfo.addFailedFeaturedItemPulls(rarity, 1);  // This could be moved into doFallbackRarePull but having it here makes it clearer
-                itemId = doFallbackRarePull(fallback1, fallback2, rarity, banner, gachaInfo);
+                itemId = doFallbackRarePull(fallback1, fallback2, rarity, table, gachaInfo);
             }
         }
 
@@ -210,26 +217,33 @@ public class GachaSystem extends BaseGameSystem {
         return itemId;
     }
 
-    private synchronized int doPull(GachaBanner banner, PlayerGachaBannerInfo gachaInfo, BannerPools pools) {
+    private int doPull(BannerTable table, PlayerGachaBannerInfo gachaInfo, BannerPools pools) {
         // Pre-increment all pity pools (yes this makes all calculations assume 1-indexed pity)
         gachaInfo.incPityAll();
 
-        int[] weights = {banner.getWeight(5, gachaInfo.getPity5()), banner.getWeight(4, gachaInfo.getPity4()), 10000};
+        int[] weights = {table.getWeight(5, gachaInfo.getPity5()), table.getWeight(4, gachaInfo.getPity4()), 10000};
         int levelWon = 5 - drawRoulette(weights, 10000);
 
         return switch (levelWon) {
             case 5:
                 gachaInfo.setPity5(0);
-                yield doRarePull(pools.rateUpItems5, pools.fallbackItems5Pool1, pools.fallbackItems5Pool2, 5, banner, gachaInfo);
+                yield doRarePull(pools.rateUpItems5, pools.fallbackItems5Pool1, pools.fallbackItems5Pool2, 5, table, gachaInfo);
             case 4:
                 gachaInfo.setPity4(0);
-                yield doRarePull(pools.rateUpItems4, pools.fallbackItems4Pool1, pools.fallbackItems4Pool2, 4, banner, gachaInfo);
+                yield doRarePull(pools.rateUpItems4, pools.fallbackItems4Pool1, pools.fallbackItems4Pool2, 4, table, gachaInfo);
             default:
-                yield getRandom(banner.getFallbackItems3());
+                yield getRandom(table.getBanner().getFallbackItems3());
         };
     }
 
-    public synchronized void doPulls(Player player, int scheduleId, int times) {
+    public void doPulls(Player player, int scheduleId, int times) {
+        // Only the pulling player's pity state is touched, so that is all we lock
+        synchronized (player.getGachaInfo()) {
+            this.doPullsLocked(player, scheduleId, times);
+        }
+    }
+
+    private void doPullsLocked(Player player, int scheduleId, int times) {
         // Sanity check
         if (times != 10 && times != 1) {
             player.sendPacket(new PacketDoGachaRsp(Retcode.RET_GACHA_INVALID_TIMES));
@@ -242,12 +256,14 @@ public class GachaSystem extends BaseGameSystem {
         }
 
         // Get banner
-        GachaBanner banner = this.getGachaBanners().get(scheduleId);
-        if (banner == null) {
+        BannerTable table = this.bannerTables.get(scheduleId);
+        if (table == null) {
             player.sendPacket(new PacketDoGachaRsp());
             return;
         }
 
+        GachaBanner banner = table.getBanner();
+
         // Check against total limit
         PlayerGachaBannerInfo gachaInfo = player.getGachaInfo().getBannerInfo(banner);
         int gachaTimesLimit = banner.getGachaTimesLimit();
@@ -265,8 +281,9 @@ public class GachaSystem extends BaseGameSystem {
 
         // Add to character
         gachaInfo.addTotalPulls(times);
-        BannerPools pools = new BannerPools(banner);
+        BannerPools pools = new BannerPools(table);
         List<GachaItem> list = new ArrayList<>();
+        List<GachaRecord> records = new ArrayList<>(times);
         int stardust = 0, starglitter = 0;
 
         if (banner.isRemoveC6FromPool()) {  // The ultimate form of pity (non-vanilla)
@@ -280,15 +297,14 @@ public class GachaSystem extends BaseGameSystem {
 
         for (int i = 0; i < times; i++) {
             // Roll
-            int itemId = doPull(banner, gachaInfo, pools);
+            int itemId = doPull(table, gachaInfo, pools);
             ItemData itemData = GameData.getItemDataMap().get(itemId);
             if (itemData == null) {
                 continue;  // Maybe we should bail out if an item fails instead of rolling the rest?
             }
 
-            // Write gacha record
-            GachaRecord gachaRecord = new GachaRecord(itemId, player.getUid(), banner.getGachaType());
-            DatabaseHelper.saveGachaRecord(gachaRecord);
+            // Gacha records are written together after the loop
+            records.add(new GachaRecord(itemId, player.getUid(), banner.getGachaType()));
 
             // Create gacha item
             GachaItem.Builder gachaItem = GachaItem.newBuilder();
@@ -347,6 +363,12 @@ public class GachaSystem extends BaseGameSystem {
             list.add(gachaItem.build());
         }
 
+        // Write gacha records
+        if (!records.isEmpty()) {
+            DatabaseHelper.saveGachaRecords(records);
+            player.getGachaInfo().addRecordCount(banner.getGachaType(), records.size());
+        }
+
         // Add stardust/starglitter
         if (stardust > 0) {
             inventory.addItem(stardustId, stardust);
@@ -401,7 +423,7 @@ public class GachaSystem extends BaseGameSystem {
         }
     }
 
-    private synchronized GetGachaInfoRsp createProto(Player player) {
+    private GetGachaInfoRsp createProto(Player player) {
         GetGachaInfoRsp.Builder proto = GetGachaInfoRsp.newBuilder().setGachaRandom(12345);
 
         long currentTime = System.currentTimeMillis() / 1000L;
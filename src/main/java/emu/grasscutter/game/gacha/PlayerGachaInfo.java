@@ -1,12 +1,19 @@
 package emu.grasscutter.game.gacha;
 
 import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Transient;
+import emu.grasscutter.database.DatabaseHelper;
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
 
 @Entity
 public class PlayerGachaInfo {
 	private PlayerGachaBannerInfo standardBanner;
 	private PlayerGachaBannerInfo eventCharacterBanner;
 	private PlayerGachaBannerInfo eventWeaponBanner;
+
+	// Number of gacha records by gacha type, loaded when first needed.
+	@Transient private final Int2LongMap recordCounts = new Int2LongOpenHashMap();
 	
 	public PlayerGachaInfo() {
 		this.standardBanner = new PlayerGachaBannerInfo();
@@ -37,4 +44,22 @@ public class PlayerGachaInfo {
 				return this.standardBanner;
 		}
 	}
+
+	public long getRecordCount(int ownerId, int gachaType) {
+		synchronized (this.recordCounts) {
+			if (!this.recordCounts.containsKey(gachaType)) {
+				this.recordCounts.put(gachaType, DatabaseHelper.getGachaRecordCount(ownerId, gachaType));
+			}
+			return this.recordCounts.get(gachaType);
+		}
+	}
+
+	public void addRecordCount(int gachaType, int count) {
+		synchronized (this.recordCounts) {
+			// Counts that were never loaded will be read from the database later.
+			if (this.recordCounts.containsKey(gachaType)) {
+				this.recordCounts.put(gachaType, this.recordCounts.get(gachaType) + count);
+			}
+		}
+	}
 }
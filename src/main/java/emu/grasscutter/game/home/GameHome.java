@@ -44,6 +44,17 @@ public class GameHome {
 
     public void save() {
         DatabaseHelper.saveHome(this);
+        this.sceneMap.values().forEach(scene -> scene.setUnsaved(false));
+    }
+
+    /**
+     * Saves the arrangement of a home scene, writing only the blocks that changed
+     * unless the scene or the home has not been saved yet.
+     */
+    public void saveArrangement(HomeSceneItem sceneItem, List<HomeBlockItem> changedBlocks) {
+        if (sceneItem.isUnsaved() || !DatabaseHelper.saveHomeScene(this, sceneItem, changedBlocks)) {
+            this.save();
+        }
     }
 
     public static GameHome getByUid(Integer uid) {
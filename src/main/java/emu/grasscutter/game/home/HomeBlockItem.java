@@ -2,12 +2,15 @@ package emu.grasscutter.game.home;
 
 import dev.morphia.annotations.Entity;
 import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Transient;
 import emu.grasscutter.data.binout.HomeworldDefaultSaveData;
 import emu.grasscutter.net.proto.HomeBlockArrangementInfoOuterClass.HomeBlockArrangementInfo;
 import emu.grasscutter.utils.Position;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 
 import java.util.List;
@@ -25,7 +28,20 @@ public class HomeBlockItem {
     List<HomeAnimalItem> deployAnimalList;
     List<HomeNPCItem> deployNPCList;
 
-    public void update(HomeBlockArrangementInfo homeBlockArrangementInfo) {
+    @Transient @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    Integer comfort;
+    @Transient @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    HomeBlockArrangementInfo lastArrangement;
+
+    /**
+     * Applies the arrangement sent by the client.
+     * @return False if the arrangement did not change since it was last applied.
+     */
+    public boolean update(HomeBlockArrangementInfo homeBlockArrangementInfo) {
+        if (homeBlockArrangementInfo.equals(this.lastArrangement)) {
+            return false;
+        }
+
         this.blockId = homeBlockArrangementInfo.getBlockId();
 
         this.deployFurnitureList = homeBlockArrangementInfo.getDeployFurniureListList().stream()
@@ -43,12 +59,19 @@ public class HomeBlockItem {
         this.deployNPCList = homeBlockArrangementInfo.getDeployNpcListList().stream()
                 .map(HomeNPCItem::parseFrom)
                 .toList();
+
+        this.comfort = null;
+        this.lastArrangement = homeBlockArrangementInfo;
+        return true;
     }
 
     public int calComfort() {
-        return this.deployFurnitureList.stream()
-                .mapToInt(HomeFurnitureItem::getComfort)
-                .sum();
+        if (this.comfort == null) {
+            this.comfort = this.deployFurnitureList.stream()
+                    .mapToInt(HomeFurnitureItem::getComfort)
+                    .sum();
+        }
+        return this.comfort;
     }
 
     public HomeBlockArrangementInfo toProto() {
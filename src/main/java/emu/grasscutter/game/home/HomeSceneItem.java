@@ -2,6 +2,7 @@ package emu.grasscutter.game.home;
 
 import dev.morphia.annotations.Entity;
 import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Transient;
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.data.binout.HomeworldDefaultSaveData;
 import emu.grasscutter.net.proto.HomeSceneArrangementInfoOuterClass.HomeSceneArrangementInfo;
@@ -9,8 +10,12 @@ import emu.grasscutter.utils.Position;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -28,6 +33,11 @@ public class HomeSceneItem {
     int homeBgmId;
     HomeFurnitureItem mainHouse;
     int tmpVersion;
+
+    @Transient @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    Integer comfort;
+    @Transient boolean unsaved; // Created from the default settings and not written to the database yet
+
     public static HomeSceneItem parseFrom(HomeworldDefaultSaveData defaultItem, int sceneId) {
         return HomeSceneItem.of()
                 .sceneId(sceneId)
@@ -39,18 +49,31 @@ public class HomeSceneItem {
                 .djinnPos(defaultItem.getDjinPos() == null ? new Position() : defaultItem.getDjinPos())
                 .mainHouse(defaultItem.getMainhouse() == null ? null :
                         HomeFurnitureItem.parseFrom(defaultItem.getMainhouse()))
+                .unsaved(true)
                 .build();
     }
 
-    public void update(HomeSceneArrangementInfo arrangementInfo) {
+    /**
+     * Applies the arrangement saved by the client.
+     * @return The blocks whose arrangement changed.
+     */
+    public List<HomeBlockItem> update(HomeSceneArrangementInfo arrangementInfo) {
+        List<HomeBlockItem> changedBlocks = new ArrayList<>();
         for (var blockItem : arrangementInfo.getBlockArrangementInfoListList()) {
             var block = this.blockItems.get(blockItem.getBlockId());
             if (block == null) {
                 Grasscutter.getLogger().warn("Could not found the Home Block {}", blockItem.getBlockId());
                 continue;
             }
-            block.update(blockItem);
-            this.blockItems.put(blockItem.getBlockId(), block);
+
+            int sceneComfort = this.calComfort();
+            int blockComfort = block.calComfort();
+            if (!block.update(blockItem)) {
+                continue;
+            }
+
+            this.comfort = sceneComfort - blockComfort + block.calComfort();
+            changedBlocks.add(block);
         }
 
         this.bornPos = new Position(arrangementInfo.getBornPos());
@@ -59,6 +82,7 @@ public class HomeSceneItem {
         this.homeBgmId = arrangementInfo.getUnk2700BJHAMKKECEI();
         this.mainHouse = HomeFurnitureItem.parseFrom(arrangementInfo.getMainHouse());
         this.tmpVersion = arrangementInfo.getTmpVersion();
+        return changedBlocks;
     }
 
     public int getRoomSceneId() {
@@ -69,9 +93,12 @@ public class HomeSceneItem {
     }
 
     public int calComfort() {
-        return this.blockItems.values().stream()
-                .mapToInt(HomeBlockItem::calComfort)
-                .sum();
+        if (this.comfort == null) {
+            this.comfort = this.blockItems.values().stream()
+                    .mapToInt(HomeBlockItem::calComfort)
+                    .sum();
+        }
+        return this.comfort;
     }
 
     public HomeSceneArrangementInfo toProto() {
@@ -126,6 +126,11 @@ public class GameItem {
         return ownerId;
     }
 
+    // Used when moving items between storage modes, when there is no player to take the guid from
+    void setOwnerId(int ownerId) {
+        this.ownerId = ownerId;
+    }
+
     public void setOwner(Player player) {
         this.ownerId = player.getUid();
         this.guid = player.getNextGameGuid();
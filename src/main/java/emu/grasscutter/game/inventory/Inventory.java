@@ -36,6 +36,7 @@ import static emu.grasscutter.config.Configuration.INVENTORY_LIMITS;
 public class Inventory extends BasePlayerManager implements Iterable<GameItem> {
     private final Long2ObjectMap<GameItem> store;
     private final Int2ObjectMap<InventoryTab> inventoryTypes;
+    private MaterialLedger materialLedger; // Only set when materials are packed
 
     public Inventory(Player player) {
         super(player);
@@ -237,12 +238,12 @@ public class Inventory extends BasePlayerManager implements Iterable<GameItem> {
                             }
                             this.putItem(item, tab);
                             // Set ownership and save to db
-                            item.save();
+                            this.saveItem(item);
                             return item;
                         } else {
                             // Add count
                             existingItem.setCount(Math.min(existingItem.getCount() + item.getCount(), item.getItemData().getStackLimit()));
-                            existingItem.save();
+                            this.saveItem(existingItem);
                             return existingItem;
                         }
                     }
@@ -441,12 +442,51 @@ public class Inventory extends BasePlayerManager implements Iterable<GameItem> {
         triggerRemItemEvents(item, removeCount);
 
         // Update in db
-        item.save();
+        this.saveItem(item);
 
         // Returns true on success
         return true;
     }
 
+    private void saveItem(GameItem item) {
+        if (this.materialLedger != null && MaterialLedger.isLedgerItem(item.getItemData())) {
+            // Written by saveMaterialLedger
+            this.materialLedger.markDirty();
+        } else {
+            item.save();
+        }
+    }
+
+    /**
+     * Writes the material ledger if any material changed since the last write.
+     * Called every player tick and when the player is saved.
+     */
+    public void saveMaterialLedger() {
+        MaterialLedger ledger = this.materialLedger;
+        if (ledger == null || !ledger.isDirty()) {
+            return;
+        }
+
+        // Only one write at a time, so a slower write cannot overwrite a newer copy
+        synchronized (ledger) {
+            synchronized (this) {
+                if (!ledger.isDirty()) {
+                    return;
+                }
+                // Cleared together with the copy, changes made after it mark the ledger dirty again
+                ledger.clearDirty();
+                ledger.setItems(this.getItems().values());
+            }
+
+            try {
+                ledger.save();
+            } catch (RuntimeException e) {
+                ledger.markDirty();
+                throw e;
+            }
+        }
+    }
+
     private void deleteItem(GameItem item, InventoryTab tab) {
         getItems().remove(item.getGuid());
         if (tab != null) {
@@ -481,7 +521,15 @@ public class Inventory extends BasePlayerManager implements Iterable<GameItem> {
     }
 
     public void loadFromDatabase() {
-        List<GameItem> items = DatabaseHelper.getInventoryItems(getPlayer());
+        List<GameItem> items = new ArrayList<>(DatabaseHelper.getInventoryItems(getPlayer()));
+
+        // Move materials to whichever storage is configured
+        if (MaterialLedger.isEnabled()) {
+            this.materialLedger = MaterialLedger.pack(getPlayer().getUid(), items);
+            this.loadMaterialLedger();
+        } else {
+            MaterialLedger.unpack(getPlayer().getUid(), items);
+        }
 
         for (GameItem item : items) {
             // Should never happen
@@ -520,6 +568,21 @@ public class Inventory extends BasePlayerManager implements Iterable<GameItem> {
         }
     }
 
+    private void loadMaterialLedger() {
+        int[] itemIds = this.materialLedger.getItemIds();
+        int[] counts = this.materialLedger.getCounts();
+
+        for (int i = 0; i < this.materialLedger.size(); i++) {
+            ItemData itemData = GameData.getItemDataMap().get(itemIds[i]);
+            if (itemData == null || counts[i] <= 0) {
+                continue;
+            }
+
+            GameItem item = new GameItem(itemData, counts[i]);
+            putItem(item, getInventoryTab(itemData.getItemType()));
+        }
+    }
+
     @Override
     public Iterator<GameItem> iterator() {
         return this.getItems().values().iterator();
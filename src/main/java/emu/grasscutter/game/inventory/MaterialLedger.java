@@ -0,0 +1,264 @@
+package emu.grasscutter.game.inventory;
+
+import static emu.grasscutter.config.Configuration.GAME_OPTIONS;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.IndexOptions;
+import dev.morphia.annotations.Indexed;
+import dev.morphia.annotations.Transient;
+import emu.grasscutter.data.GameData;
+import emu.grasscutter.data.excels.ItemData;
+import emu.grasscutter.database.DatabaseHelper;
+import emu.grasscutter.game.player.Player;
+import it.unimi.dsi.fastutil.ints.Int2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import lombok.Getter;
+
+/**
+ * Stores all stackable items (materials and furniture) of a player in a single document,
+ * as parallel arrays of item ids and counts. Weapons and relics keep their own documents.
+ * Only used when {@code packMaterials} is enabled in the game options.
+ */
+@Entity(value = "material_ledgers", useDiscriminator = false)
+public class MaterialLedger {
+    @Id private ObjectId id;
+    @Indexed(options = @IndexOptions(unique = true)) @Getter private int ownerId;
+
+    @Getter private int[] itemIds;
+    @Getter private int[] counts;
+
+    // Item documents merged by a pack that has not deleted them yet, so a repeated pack does not merge them again
+    private List<ObjectId> absorbedItems;
+    // Set by an unpack that has not finished, the counts are then the absolute counts of the item documents
+    private boolean unpacking;
+
+    @Transient private volatile boolean dirty;
+
+    @Deprecated // Morphia only
+    public MaterialLedger() {}
+
+    public MaterialLedger(Player player) {
+        this(player.getUid());
+    }
+
+    public MaterialLedger(int ownerId) {
+        this.ownerId = ownerId;
+        this.itemIds = new int[0];
+        this.counts = new int[0];
+    }
+
+    public static boolean isEnabled() {
+        return GAME_OPTIONS.packMaterials;
+    }
+
+    /**
+     * @return True if items of this type are kept in the ledger instead of their own document.
+     */
+    public static boolean isLedgerItem(ItemData itemData) {
+        if (itemData == null) return false;
+
+        return switch (itemData.getItemType()) {
+            case ITEM_MATERIAL, ITEM_FURNITURE -> true;
+            default -> false;
+        };
+    }
+
+    public int size() {
+        return this.itemIds == null ? 0 : this.itemIds.length;
+    }
+
+    public boolean isDirty() {
+        return this.dirty;
+    }
+
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    public void clearDirty() {
+        this.dirty = false;
+    }
+
+    /**
+     * Replaces the contents of the ledger with the given items. Items that are not
+     * ledger items or have no count left are skipped. Entries for items that are
+     * missing from the resources are kept, since the inventory never loaded them.
+     */
+    public void setItems(Collection<GameItem> items) {
+        IntList ids = new IntArrayList(items.size());
+        IntList amounts = new IntArrayList(items.size());
+
+        for (int i = 0; i < this.size(); i++) {
+            if (GameData.getItemDataMap().get(this.itemIds[i]) == null) {
+                ids.add(this.itemIds[i]);
+                amounts.add(this.counts[i]);
+            }
+        }
+
+        for (GameItem item : items) {
+            if (item.getCount() > 0 && isLedgerItem(item.getItemData())) {
+                ids.add(item.getItemId());
+                amounts.add(item.getCount());
+            }
+        }
+
+        this.itemIds = ids.toIntArray();
+        this.counts = amounts.toIntArray();
+    }
+
+    public void save() {
+        DatabaseHelper.saveMaterialLedger(this);
+    }
+
+    private Int2IntMap toMap() {
+        Int2IntMap map = new Int2IntLinkedOpenHashMap(this.size());
+        for (int i = 0; i < this.size(); i++) {
+            map.mergeInt(this.itemIds[i], this.counts[i], Integer::sum);
+        }
+        return map;
+    }
+
+    private void setMap(Int2IntMap map) {
+        this.itemIds = map.keySet().toIntArray();
+        this.counts = map.values().toIntArray();
+    }
+
+    /**
+     * Moves any stackable items that still have their own document into the owner's ledger.
+     * The moved items are removed from {@code items}.
+     * @param ownerId The player's UID.
+     * @param items The owner's item documents, must be modifiable.
+     * @return The owner's ledger, created if it did not exist yet.
+     */
+    public static MaterialLedger pack(int ownerId, List<GameItem> items) {
+        MaterialLedger ledger = DatabaseHelper.getMaterialLedger(ownerId);
+        if (ledger != null && ledger.unpacking) {
+            // Finish the interrupted unpack first, its counts already include the item documents
+            unpack(ownerId, items);
+            ledger = DatabaseHelper.getMaterialLedger(ownerId);
+        }
+        if (ledger == null) {
+            ledger = new MaterialLedger(ownerId);
+        }
+
+        List<GameItem> loose = new ArrayList<>();
+        Iterator<GameItem> it = items.iterator();
+        while (it.hasNext()) {
+            GameItem item = it.next();
+            if (isLedgerItem(GameData.getItemDataMap().get(item.getItemId()))) {
+                loose.add(item);
+                it.remove();
+            }
+        }
+
+        if (loose.isEmpty()) {
+            return ledger;
+        }
+
+        List<ObjectId> absorbed = ledger.absorbedItems != null ? ledger.absorbedItems : new ArrayList<>();
+        Set<ObjectId> merged = new HashSet<>(absorbed);
+        Int2IntMap map = ledger.toMap();
+        for (GameItem item : loose) {
+            // Already merged by a pack that was interrupted before deleting the documents
+            if (!merged.add(item.getObjectId())) continue;
+
+            map.mergeInt(item.getItemId(), item.getCount(), Integer::sum);
+            absorbed.add(item.getObjectId());
+        }
+        ledger.setMap(map);
+        ledger.absorbedItems = absorbed;
+
+        // Write the ledger before dropping the old documents, so a crash in between cannot lose items,
+        // and a repeated run skips the documents recorded as absorbed instead of counting them twice
+        ledger.save();
+        DatabaseHelper.deleteItems(loose);
+        ledger.absorbedItems = null;
+        ledger.save();
+
+        return ledger;
+    }
+
+    /**
+     * Moves the contents of the owner's ledger back into one document per item and deletes the ledger.
+     * Documents that are created or updated are added to {@code items}.
+     * The absolute counts are written to the ledger before any item document, so an interrupted unpack can be repeated.
+     * @param ownerId The player's UID.
+     * @param items The owner's item documents, must be modifiable.
+     */
+    public static void unpack(int ownerId, List<GameItem> items) {
+        MaterialLedger ledger = DatabaseHelper.getMaterialLedger(ownerId);
+        if (ledger == null) {
+            return;
+        }
+
+        // Documents an interrupted pack merged into the ledger but did not delete yet
+        if (ledger.absorbedItems != null && !ledger.absorbedItems.isEmpty()) {
+            Set<ObjectId> absorbed = new HashSet<>(ledger.absorbedItems);
+            List<GameItem> merged = items.stream().filter(item -> absorbed.contains(item.getObjectId())).toList();
+            items.removeAll(merged);
+            DatabaseHelper.deleteItems(merged);
+            ledger.absorbedItems = null;
+        }
+
+        Int2ObjectMap<GameItem> existing = new Int2ObjectOpenHashMap<>();
+        for (GameItem item : items) {
+            if (isLedgerItem(GameData.getItemDataMap().get(item.getItemId()))) {
+                existing.put(item.getItemId(), item);
+            }
+        }
+
+        if (!ledger.unpacking) {
+            Int2IntMap totals = ledger.toMap();
+            for (Int2IntMap.Entry entry : totals.int2IntEntrySet()) {
+                GameItem item = existing.get(entry.getIntKey());
+                if (item != null) {
+                    entry.setValue(item.getCount() + entry.getIntValue());
+                }
+            }
+            ledger.setMap(totals);
+            ledger.unpacking = true;
+            ledger.save();
+        }
+
+        Int2IntMap unknown = new Int2IntLinkedOpenHashMap();
+        for (Int2IntMap.Entry entry : ledger.toMap().int2IntEntrySet()) {
+            GameItem item = existing.get(entry.getIntKey());
+            if (item != null) {
+                item.setCount(entry.getIntValue());
+            } else {
+                ItemData itemData = GameData.getItemDataMap().get(entry.getIntKey());
+                if (itemData == null) {
+                    unknown.put(entry.getIntKey(), entry.getIntValue());
+                    continue;
+                }
+                item = new GameItem(itemData, entry.getIntValue());
+                item.setOwnerId(ownerId);
+                items.add(item);
+            }
+            DatabaseHelper.saveItem(item);
+        }
+
+        // Items missing from the resources stay in the ledger until they can be loaded again
+        if (unknown.isEmpty()) {
+            DatabaseHelper.deleteMaterialLedger(ledger);
+        } else {
+            ledger.setMap(unknown);
+            ledger.unpacking = false;
+            ledger.save();
+        }
+    }
+}
@@ -390,9 +390,8 @@ public class StaminaManager extends BasePlayerManager {
         currentState = motionState;
         // logger.trace(currentState + "\t" + (notifyEntityId == currentAvatarEntityId ? "character" : "vehicle"));
         Vector posVector = motionInfo.getPos();
-        Position newPos = new Position(posVector.getX(), posVector.getY(), posVector.getZ());
-        if (newPos.getX() != 0 && newPos.getY() != 0 && newPos.getZ() != 0) {
-            currentCoordinates = newPos;
+        if (posVector.getX() != 0 && posVector.getY() != 0 && posVector.getZ() != 0) {
+            currentCoordinates.set(posVector);
         }
         startSustainedStaminaHandler();
         handleImmediateStamina(session, motionState);
@@ -495,7 +494,7 @@ public class StaminaManager extends BasePlayerManager {
                 }
             }
             previousState = currentState;
-            previousCoordinates = currentCoordinates.clone();
+            previousCoordinates.set(currentCoordinates);
         }
     }
 
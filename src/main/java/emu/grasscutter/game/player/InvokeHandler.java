@@ -1,60 +1,164 @@
 package emu.grasscutter.game.player;
 
+import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+
+import emu.grasscutter.Grasscutter;
 import emu.grasscutter.net.packet.BasePacket;
+import emu.grasscutter.net.packet.RepeatedFieldBytes;
 import emu.grasscutter.net.proto.ForwardTypeOuterClass.ForwardType;
 
 public class InvokeHandler<T> {
-	private final List<T> entryListForwardAll;
-	private final List<T> entryListForwardAllExceptCur;
-	private final List<T> entryListForwardHost;
-	private final Class<? extends BasePacket> packetClass;
-	
+	private final Function<List<T>, BasePacket> packetFactory;
+	private final int opcode;
+	private final int fieldNumber;
+	private final Object flushLock = new Object();
+	private final List<T> factoryEntries = new ArrayList<>();
+	private final List<ByteString> rawEntries = new ArrayList<>();
+
+	// Entries are added to the pending lists, update() swaps them with the flushing lists
+	// so new entries can be queued while the previous batch is being broadcast.
+	private List<Entry<T>> pendingForwardAll = new ArrayList<>();
+	private List<Entry<T>> pendingForwardAllExceptCur = new ArrayList<>();
+	private List<Entry<T>> pendingForwardHost = new ArrayList<>();
+	private List<Entry<T>> flushingForwardAll = new ArrayList<>();
+	private List<Entry<T>> flushingForwardAllExceptCur = new ArrayList<>();
+	private List<Entry<T>> flushingForwardHost = new ArrayList<>();
+
+	/**
+	 * Forwards entries in a packet whose only field is the repeated entry field. The entries are spliced
+	 * in as received, see {@link #addEntry(ForwardType, Object, ByteString)}, without serializing them again.
+	 * @param opcode The opcode of the forwarded packet.
+	 * @param fieldNumber The number of the repeated entry field.
+	 */
+	public InvokeHandler(int opcode, int fieldNumber) {
+		this.packetFactory = null;
+		this.opcode = opcode;
+		this.fieldNumber = fieldNumber;
+	}
+
+	/**
+	 * @param packetFactory Creates the packet forwarding a batch of entries. The list is reused
+	 *                      after the packet is sent, so the factory must not keep a reference to it.
+	 */
+	public InvokeHandler(Function<List<T>, BasePacket> packetFactory) {
+		this.packetFactory = packetFactory;
+		this.opcode = 0;
+		this.fieldNumber = 0;
+	}
+
+	/**
+	 * @deprecated Use {@link #InvokeHandler(Function)}. The packet class needs a public constructor taking a {@link List}.
+	 */
+	@Deprecated
 	public InvokeHandler(Class<? extends BasePacket> packetClass) {
-		this.entryListForwardAll = new ArrayList<>();
-		this.entryListForwardAllExceptCur = new ArrayList<>();
-		this.entryListForwardHost = new ArrayList<>();
-		this.packetClass = packetClass;
+		this(reflectiveFactory(packetClass));
+	}
+
+	private static <T> Function<List<T>, BasePacket> reflectiveFactory(Class<? extends BasePacket> packetClass) {
+		Constructor<? extends BasePacket> constructor;
+		try {
+			constructor = packetClass.getDeclaredConstructor(List.class);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException(packetClass.getName() + " has no List constructor", e);
+		}
+
+		return entries -> {
+			try {
+				return constructor.newInstance(entries);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+	public void addEntry(ForwardType forward, T entry) {
+		this.addEntry(forward, entry, null);
 	}
 
-	public synchronized void addEntry(ForwardType forward, T entry) {
+	/**
+	 * @param raw The wire bytes the entry was received as, or null if it was changed or built on the server.
+	 */
+	public synchronized void addEntry(ForwardType forward, T entry, ByteString raw) {
+		var queued = new Entry<>(entry, raw);
 		switch (forward) {
-			case FORWARD_TYPE_TO_ALL -> entryListForwardAll.add(entry);
-			case FORWARD_TYPE_TO_ALL_EXCEPT_CUR, FORWARD_TYPE_TO_ALL_EXIST_EXCEPT_CUR -> entryListForwardAllExceptCur.add(entry);
-			case FORWARD_TYPE_TO_HOST -> entryListForwardHost.add(entry);
+			case FORWARD_TYPE_TO_ALL -> pendingForwardAll.add(queued);
+			case FORWARD_TYPE_TO_ALL_EXCEPT_CUR, FORWARD_TYPE_TO_ALL_EXIST_EXCEPT_CUR -> pendingForwardAllExceptCur.add(queued);
+			case FORWARD_TYPE_TO_HOST -> pendingForwardHost.add(queued);
 			default -> {
 			}
 		}
 	}
-	
-	public synchronized void update(Player player) {
-		if (player.getWorld() == null || player.getScene() == null) {
-			this.entryListForwardAll.clear();
-			this.entryListForwardAllExceptCur.clear();
-			this.entryListForwardHost.clear();
-			return;
-		}
-		
-		try {
-			if (entryListForwardAll.size() > 0) {
-				BasePacket packet = packetClass.getDeclaredConstructor(List.class).newInstance(this.entryListForwardAll);
-				player.getScene().broadcastPacket(packet);
-				this.entryListForwardAll.clear();
-			}
-			if (entryListForwardAllExceptCur.size() > 0) {
-				BasePacket packet = packetClass.getDeclaredConstructor(List.class).newInstance(this.entryListForwardAllExceptCur);
-				player.getScene().broadcastPacketToOthers(player, packet);
-				this.entryListForwardAllExceptCur.clear();
+
+	private synchronized void swapLists() {
+		List<Entry<T>> list = this.pendingForwardAll;
+		this.pendingForwardAll = this.flushingForwardAll;
+		this.flushingForwardAll = list;
+
+		list = this.pendingForwardAllExceptCur;
+		this.pendingForwardAllExceptCur = this.flushingForwardAllExceptCur;
+		this.flushingForwardAllExceptCur = list;
+
+		list = this.pendingForwardHost;
+		this.pendingForwardHost = this.flushingForwardHost;
+		this.flushingForwardHost = list;
+	}
+
+	public void update(Player player) {
+		synchronized (this.flushLock) {
+			this.swapLists();
+
+			try {
+				if (player.getWorld() == null || player.getScene() == null) {
+					return;
+				}
+
+				if (!this.flushingForwardAll.isEmpty()) {
+					player.getScene().broadcastPacket(this.buildPacket(this.flushingForwardAll));
+				}
+				if (!this.flushingForwardAllExceptCur.isEmpty()) {
+					player.getScene().broadcastPacketToOthers(player, this.buildPacket(this.flushingForwardAllExceptCur));
+				}
+				if (!this.flushingForwardHost.isEmpty()) {
+					player.getWorld().getHost().sendPacket(this.buildPacket(this.flushingForwardHost));
+				}
+			} catch (Exception e) {
+				Grasscutter.getLogger().error("Error forwarding invoke entries for player " + player.getUid(), e);
+			} finally {
+				this.flushingForwardAll.clear();
+				this.flushingForwardAllExceptCur.clear();
+				this.flushingForwardHost.clear();
 			}
-			if (entryListForwardHost.size() > 0) {
-				BasePacket packet = packetClass.getDeclaredConstructor(List.class).newInstance(this.entryListForwardHost);
-				player.getWorld().getHost().sendPacket(packet);
-				this.entryListForwardHost.clear();
+		}
+	}
+
+	// Only called under flushLock, which guards the scratch lists
+	private BasePacket buildPacket(List<Entry<T>> entries) {
+		if (this.packetFactory != null) {
+			this.factoryEntries.clear();
+			entries.forEach(entry -> this.factoryEntries.add(entry.message()));
+			try {
+				return this.packetFactory.apply(this.factoryEntries);
+			} finally {
+				this.factoryEntries.clear();
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
 		}
+
+		this.rawEntries.clear();
+		for (Entry<T> entry : entries) {
+			this.rawEntries.add(entry.raw() != null ? entry.raw() : ((MessageLite) entry.message()).toByteString());
+		}
+
+		BasePacket packet = new BasePacket(this.opcode, true);
+		packet.setData(RepeatedFieldBytes.write(this.fieldNumber, this.rawEntries));
+		this.rawEntries.clear();
+		return packet;
 	}
+
+	private record Entry<T>(T message, ByteString raw) {}
 }
@@ -0,0 +1,161 @@
+package emu.grasscutter.game.player;
+
+import static emu.grasscutter.config.Configuration.GAME_OPTIONS;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import emu.grasscutter.Grasscutter;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/**
+ * Keeps the serialized parts of the big login packets (inventory, avatars and codex) of a player
+ * between sessions, so a client reconnecting shortly after a disconnect does not rebuild all of them.
+ * <p>
+ * A snapshot is only taken while logging in, when the player's state matches the database, and is
+ * dropped whenever the data it was built from is written to the database again. Guids are assigned
+ * per session, so snapshots also carry a fingerprint of the guids they contain and are only reused
+ * when the new session assigned the same ones.
+ */
+public final class LoginPacketCache {
+    private static final Map<Integer, LoginPacketCache> caches = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    private final int uid;
+    private Snapshot inventory;
+    private Snapshot codex;
+    private final Int2ObjectMap<Snapshot> avatars = new Int2ObjectOpenHashMap<>();
+    private volatile long lastUsed;
+
+    private LoginPacketCache(int uid) {
+        this.uid = uid;
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    public static boolean isEnabled() {
+        return GAME_OPTIONS.loginPacketCacheSeconds > 0;
+    }
+
+    /**
+     * @return The cache of the player, or null if login packets are not cached.
+     */
+    public static LoginPacketCache get(int uid) {
+        if (!isEnabled()) return null;
+
+        LoginPacketCache cache = caches.computeIfAbsent(uid, LoginPacketCache::new);
+        cache.lastUsed = System.currentTimeMillis();
+        return cache;
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static int getCachedPlayers() {
+        return caches.size();
+    }
+
+    /* Invalidation. */
+
+    public static void invalidateInventory(int uid) {
+        LoginPacketCache cache = caches.get(uid);
+        if (cache == null) return;
+
+        synchronized (cache) {
+            cache.inventory = null;
+        }
+    }
+
+    public static void invalidateAvatar(int uid, int avatarId) {
+        LoginPacketCache cache = caches.get(uid);
+        if (cache == null) return;
+
+        synchronized (cache) {
+            cache.avatars.remove(avatarId);
+        }
+    }
+
+    public static void invalidateCodex(int uid) {
+        LoginPacketCache cache = caches.get(uid);
+        if (cache == null) return;
+
+        synchronized (cache) {
+            cache.codex = null;
+        }
+    }
+
+    /**
+     * Starts the expiry timer of the player's cache. Called when the player logs out.
+     */
+    public static void onLogout(int uid) {
+        LoginPacketCache cache = caches.get(uid);
+        if (cache != null) {
+            cache.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Drops the caches of players that have been offline for longer than the configured time.
+     */
+    public static void purgeExpired() {
+        if (caches.isEmpty()) return;
+
+        long expiry = System.currentTimeMillis() - GAME_OPTIONS.loginPacketCacheSeconds * 1000L;
+        Map<Integer, Player> online = Grasscutter.getGameServer().getPlayers();
+        caches.values().removeIf(cache -> cache.lastUsed < expiry && !online.containsKey(cache.uid));
+    }
+
+    /* Snapshots. */
+
+    /**
+     * @param fingerprint Fingerprint of the guids in the inventory, see {@link #fingerprint(long, long)}.
+     * @param builder Serializes the item list.
+     */
+    public synchronized byte[] getInventory(long fingerprint, Supplier<byte[]> builder) {
+        this.inventory = resolve(this.inventory, fingerprint, builder);
+        return this.inventory.data;
+    }
+
+    /**
+     * @param fingerprint Fingerprint of the avatar's guid and anything else it shows that is not saved with it.
+     * @param builder Serializes the avatar.
+     */
+    public synchronized byte[] getAvatar(int avatarId, long fingerprint, Supplier<byte[]> builder) {
+        Snapshot snapshot = resolve(this.avatars.get(avatarId), fingerprint, builder);
+        this.avatars.put(avatarId, snapshot);
+        return snapshot.data;
+    }
+
+    public synchronized byte[] getCodex(Supplier<byte[]> builder) {
+        this.codex = resolve(this.codex, 0, builder);
+        return this.codex.data;
+    }
+
+    private static Snapshot resolve(Snapshot snapshot, long fingerprint, Supplier<byte[]> builder) {
+        if (snapshot != null && snapshot.fingerprint == fingerprint) {
+            hits.increment();
+            return snapshot;
+        }
+
+        misses.increment();
+        return new Snapshot(fingerprint, builder.get());
+    }
+
+    /**
+     * Adds a value to a fingerprint.
+     */
+    public static long fingerprint(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private record Snapshot(long fingerprint, byte[] data) {}
+}
@@ -50,8 +50,11 @@ import emu.grasscutter.game.tower.TowerManager;
 import emu.grasscutter.game.world.Scene;
 import emu.grasscutter.game.world.World;
 import emu.grasscutter.net.packet.BasePacket;
+import emu.grasscutter.net.packet.PacketOpcodes;
+import emu.grasscutter.net.proto.AbilityInvocationsNotifyOuterClass.AbilityInvocationsNotify;
 import emu.grasscutter.net.proto.AbilityInvokeEntryOuterClass.AbilityInvokeEntry;
 import emu.grasscutter.net.proto.AttackResultOuterClass.AttackResult;
+import emu.grasscutter.net.proto.CombatInvocationsNotifyOuterClass.CombatInvocationsNotify;
 import emu.grasscutter.net.proto.CombatInvokeEntryOuterClass.CombatInvokeEntry;
 import emu.grasscutter.net.proto.GadgetInteractReqOuterClass.GadgetInteractReq;
 import emu.grasscutter.net.proto.MpSettingTypeOuterClass.MpSettingType;
@@ -192,6 +195,7 @@ public class Player {
 
     private transient final Int2ObjectMap<CoopRequest> coopRequests;  // Synchronized getter
     @Getter private transient final Queue<AttackResult> attackResults;
+    @Getter private transient final PlayerLandingState landingState = new PlayerLandingState();
     @Getter private transient final InvokeHandler<CombatInvokeEntry> combatInvokeHandler;
     @Getter private transient final InvokeHandler<AbilityInvokeEntry> abilityInvokeHandler;
     @Getter private transient final InvokeHandler<AbilityInvokeEntry> clientAbilityInitFinishHandler;
@@ -247,9 +251,9 @@ public class Player {
 
         this.attackResults = new LinkedBlockingQueue<>();
         this.coopRequests = new Int2ObjectOpenHashMap<>();
-        this.combatInvokeHandler = new InvokeHandler(PacketCombatInvocationsNotify.class);
-        this.abilityInvokeHandler = new InvokeHandler(PacketAbilityInvocationsNotify.class);
-        this.clientAbilityInitFinishHandler = new InvokeHandler(PacketClientAbilityInitFinishNotify.class);
+        this.combatInvokeHandler = new InvokeHandler<>(PacketOpcodes.CombatInvocationsNotify, CombatInvocationsNotify.INVOKE_LIST_FIELD_NUMBER);
+        this.abilityInvokeHandler = new InvokeHandler<>(PacketOpcodes.AbilityInvocationsNotify, AbilityInvocationsNotify.INVOKES_FIELD_NUMBER);
+        this.clientAbilityInitFinishHandler = new InvokeHandler<AbilityInvokeEntry>(PacketClientAbilityInitFinishNotify::new);
 
         this.birthday = new PlayerBirthday();
         this.rewardedLevels = new HashSet<>();
@@ -1174,6 +1178,12 @@ public class Player {
         // Send updated forge queue data, if necessary.
         this.getForgingManager().sendPlayerForgingUpdate();
 
+        // Send battle pass missions progressed this tick.
+        this.getBattlePassManager().flushMissionUpdates();
+
+        // Write materials changed this tick.
+        this.getInventory().saveMaterialLedger();
+
         // Recharge resin.
         this.getResinManager().rechargeResin();
     }
@@ -1222,6 +1232,12 @@ public class Player {
 
     public void save() {
         DatabaseHelper.savePlayer(this);
+        this.getInventory().saveMaterialLedger();
+
+        // Drop the cached offline profile
+        if (Grasscutter.getGameServer() != null) {
+            Grasscutter.getGameServer().getSocialDetailCache().invalidate(this.getUid());
+        }
     }
 
     // Called from tokenrsp
@@ -1286,17 +1302,18 @@ public class Player {
         getQuestManager().onLogin();
 
         // Packets
+        LoginPacketCache loginCache = LoginPacketCache.get(this.getUid());
         session.send(new PacketPlayerDataNotify(this)); // Player data
         session.send(new PacketStoreWeightLimitNotify());
-        session.send(new PacketPlayerStoreNotify(this));
-        session.send(new PacketAvatarDataNotify(this));
+        session.send(new PacketPlayerStoreNotify(this, loginCache));
+        session.send(new PacketAvatarDataNotify(this, loginCache));
 
         this.getProgressManager().onPlayerLogin();
 
         session.send(new PacketFinishedParentQuestNotify(this));
         session.send(new PacketBattlePassAllDataNotify(this));
         session.send(new PacketQuestListNotify(this));
-        session.send(new PacketCodexDataFullNotify(this));
+        session.send(new PacketCodexDataFullNotify(this, loginCache));
         session.send(new PacketAllWidgetDataNotify(this));
         session.send(new PacketWidgetGadgetAllDataNotify());
         session.send(new PacketCombineDataNotify(this.unlockedCombines));
@@ -1360,10 +1377,14 @@ public class Player {
 
             this.getCoopRequests().clear();
 
+            // Save battle pass progress that has not been flushed yet
+            this.getBattlePassManager().flushMissionUpdates();
+
             // Save to db
             this.save();
             this.getTeamManager().saveAvatars();
             this.getFriendsList().save();
+            LoginPacketCache.onLogout(this.getUid());
 
             // Call quit event.
             PlayerQuitEvent event = new PlayerQuitEvent(this); event.call();
@@ -1377,9 +1398,7 @@ public class Player {
 
     public void removeFromServer() {
         // Remove from server.
-        //Note: DON'T DELETE BY UID,BECAUSE THERE ARE MULTIPLE SAME UID PLAYERS WHEN DUPLICATED LOGIN!
-        //so I decide to delete by object rather than uid
-        getServer().getPlayers().values().removeIf(player1 -> player1 == this);
+        getServer().deregisterPlayer(this);
     }
 
     public int getLegendaryKey() {
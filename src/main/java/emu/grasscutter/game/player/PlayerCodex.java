@@ -56,6 +56,7 @@ public class PlayerCodex {
                 Optional.ofNullable(GameData.getCodexWeaponDataIdMap().get(itemId))
                     .ifPresent(codexData -> {
                         if (this.getUnlockedWeapon().add(itemId)) {
+                            this.onChanged();
                             this.player.save();
                             this.player.sendPacket(new PacketCodexDataUpdateNotify(2, codexData.getId()));
                         }
@@ -68,6 +69,7 @@ public class PlayerCodex {
                         Optional.ofNullable(GameData.getCodexMaterialDataIdMap().get(itemId))
                             .ifPresent(codexData -> {
                                 if (this.getUnlockedMaterial().add(itemId)) {
+                                    this.onChanged();
                                     this.player.save();
                                     this.player.sendPacket(new PacketCodexDataUpdateNotify(4, codexData.getId()));
                                 }
@@ -96,6 +98,7 @@ public class PlayerCodex {
 
             this.getUnlockedAnimal().merge(monsterId, 1, (i, j) -> i + 1);
 
+            this.onChanged();
             player.save();
             this.player.sendPacket(new PacketCodexDataUpdateNotify(3, monsterId));
         }
@@ -109,11 +112,16 @@ public class PlayerCodex {
             .forEach(x -> {
                 int id = x.getId();
                 this.getUnlockedReliquarySuitCodex().add(id);
+                this.onChanged();
                 this.player.save();
                 this.player.sendPacket(new PacketCodexDataUpdateNotify(8, id));
             });
     }
 
+    private void onChanged() {
+        LoginPacketCache.invalidateCodex(this.player.getUid());
+    }
+
     @Deprecated  // Maybe remove this if we ever stop caring about older dbs
     private void fixReliquaries() {
         // Migrate older database entries which were using non-canonical forms of itemIds
@@ -0,0 +1,36 @@
+package emu.grasscutter.game.player;
+
+import lombok.Getter;
+
+/**
+ * Tracks a player's landing between MOTION_STATE_LAND_SPEED and MOTION_STATE_FALL_ON_GROUND,
+ * which arrive in different packets.
+ */
+public class PlayerLandingState {
+    @Getter private float landingSpeed;
+    @Getter private long landingTimeMillis;
+    private boolean monitoring;
+
+    /**
+     * Remembers the landing speed until the matching fall on ground arrives.
+     */
+    public void onLandSpeed(float speed) {
+        this.landingSpeed = speed;
+        this.landingTimeMillis = System.currentTimeMillis();
+        this.monitoring = true;
+    }
+
+    /**
+     * @return True if a landing speed was received and not yet used by a fall on ground.
+     */
+    public boolean consumeFallOnGround() {
+        if (!this.monitoring) return false;
+
+        this.monitoring = false;
+        return true;
+    }
+
+    public void reset() {
+        this.landingSpeed = 0;
+    }
+}
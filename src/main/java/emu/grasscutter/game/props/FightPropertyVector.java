@@ -0,0 +1,256 @@
+package emu.grasscutter.game.props;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import it.unimi.dsi.fastutil.ints.AbstractInt2FloatMap;
+import it.unimi.dsi.fastutil.ints.Int2FloatMap;
+import it.unimi.dsi.fastutil.ints.Int2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+
+/**
+ * Fight properties stored in a float array indexed by {@link FightProperty} ordinal, with a bitset of
+ * the properties that are set and another of the properties that changed since {@link #pollChanges()}.
+ * Ids that have no {@link FightProperty} constant are kept in a small fallback map.
+ * Works as a drop-in {@link Int2FloatMap} keyed by property id.
+ */
+public final class FightPropertyVector extends AbstractInt2FloatMap {
+    private static final FightProperty[] PROPS = FightProperty.values();
+    private static final int WORDS = (PROPS.length + 63) >>> 6;
+    private static final int[] ORDINAL_BY_ID;
+
+    static {
+        int maxId = Arrays.stream(PROPS).mapToInt(FightProperty::getId).max().orElse(0);
+        ORDINAL_BY_ID = new int[maxId + 1];
+        Arrays.fill(ORDINAL_BY_ID, -1);
+        for (FightProperty prop : PROPS) {
+            ORDINAL_BY_ID[prop.getId()] = prop.ordinal();
+        }
+    }
+
+    private final float[] values = new float[PROPS.length];
+    private final long[] present = new long[WORDS];
+    private final long[] changed = new long[WORDS];
+    private int size;
+    private Int2FloatOpenHashMap extra;
+
+    public FightPropertyVector() {}
+
+    private static int ordinalOf(int id) {
+        return (id >= 0 && id < ORDINAL_BY_ID.length) ? ORDINAL_BY_ID[id] : -1;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void unset(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    private static int nextSet(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) return -1;
+
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(current);
+            }
+            if (++word >= bits.length) return -1;
+            current = bits[word];
+        }
+    }
+
+    public float get(FightProperty prop) {
+        int ordinal = prop.ordinal();
+        return isSet(this.present, ordinal) ? this.values[ordinal] : this.defRetValue;
+    }
+
+    public void set(FightProperty prop, float value) {
+        this.put(prop.getId(), value);
+    }
+
+    @Override
+    public float get(int id) {
+        return this.getOrDefault(id, this.defRetValue);
+    }
+
+    @Override
+    public float getOrDefault(int id, float defaultValue) {
+        int ordinal = ordinalOf(id);
+        if (ordinal < 0) {
+            return (this.extra != null && this.extra.containsKey(id)) ? this.extra.get(id) : defaultValue;
+        }
+        return isSet(this.present, ordinal) ? this.values[ordinal] : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(int id) {
+        int ordinal = ordinalOf(id);
+        if (ordinal < 0) {
+            return this.extra != null && this.extra.containsKey(id);
+        }
+        return isSet(this.present, ordinal);
+    }
+
+    @Override
+    public float put(int id, float value) {
+        int ordinal = ordinalOf(id);
+        if (ordinal < 0) {
+            if (this.extra == null) this.extra = new Int2FloatOpenHashMap();
+            this.extra.defaultReturnValue(this.defRetValue);
+            return this.extra.put(id, value);
+        }
+
+        float previous = this.defRetValue;
+        if (isSet(this.present, ordinal)) {
+            previous = this.values[ordinal];
+            if (Float.compare(previous, value) == 0) {
+                return previous;
+            }
+        } else {
+            set(this.present, ordinal);
+            this.size++;
+        }
+
+        this.values[ordinal] = value;
+        set(this.changed, ordinal);
+        return previous;
+    }
+
+    @Override
+    public float remove(int id) {
+        int ordinal = ordinalOf(id);
+        if (ordinal < 0) {
+            return this.extra != null ? this.extra.remove(id) : this.defRetValue;
+        }
+        if (!isSet(this.present, ordinal)) {
+            return this.defRetValue;
+        }
+
+        float previous = this.values[ordinal];
+        unset(this.present, ordinal);
+        this.values[ordinal] = 0f;
+        this.size--;
+        set(this.changed, ordinal);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < WORDS; i++) {
+            this.changed[i] |= this.present[i];
+            this.present[i] = 0;
+        }
+        Arrays.fill(this.values, 0f);
+        this.size = 0;
+        if (this.extra != null) this.extra.clear();
+    }
+
+    @Override
+    public int size() {
+        return this.size + (this.extra != null ? this.extra.size() : 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /* Change tracking. */
+
+    public boolean hasChanges() {
+        for (long word : this.changed) {
+            if (word != 0) return true;
+        }
+        return false;
+    }
+
+    public void markChanged(FightProperty prop) {
+        set(this.changed, prop.ordinal());
+    }
+
+    public void clearChanges() {
+        Arrays.fill(this.changed, 0);
+    }
+
+    /**
+     * @return The properties changed since the last call, removed ones included.
+     */
+    public List<FightProperty> pollChanges() {
+        List<FightProperty> result = new ArrayList<>();
+        for (int i = nextSet(this.changed, 0); i >= 0; i = nextSet(this.changed, i + 1)) {
+            result.add(PROPS[i]);
+        }
+        this.clearChanges();
+        return result;
+    }
+
+    /**
+     * Calls the consumer for every property that is set, without boxing.
+     */
+    public void forEachProperty(PropertyConsumer consumer) {
+        for (int i = nextSet(this.present, 0); i >= 0; i = nextSet(this.present, i + 1)) {
+            consumer.accept(PROPS[i].getId(), this.values[i]);
+        }
+        if (this.extra != null) {
+            for (Int2FloatMap.Entry entry : this.extra.int2FloatEntrySet()) {
+                consumer.accept(entry.getIntKey(), entry.getFloatValue());
+            }
+        }
+    }
+
+    @Override
+    public ObjectSet<Int2FloatMap.Entry> int2FloatEntrySet() {
+        return new AbstractObjectSet<>() {
+            @Override
+            public ObjectIterator<Int2FloatMap.Entry> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return FightPropertyVector.this.size();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface PropertyConsumer {
+        void accept(int id, float value);
+    }
+
+    private final class EntryIterator implements ObjectIterator<Int2FloatMap.Entry> {
+        private int next = nextSet(present, 0);
+        private final ObjectIterator<Int2FloatMap.Entry> extraIterator =
+            extra != null ? extra.int2FloatEntrySet().iterator() : null;
+
+        @Override
+        public boolean hasNext() {
+            return this.next >= 0 || (this.extraIterator != null && this.extraIterator.hasNext());
+        }
+
+        @Override
+        public Int2FloatMap.Entry next() {
+            if (this.next >= 0) {
+                int ordinal = this.next;
+                this.next = nextSet(present, ordinal + 1);
+                return new BasicEntry(PROPS[ordinal].getId(), values[ordinal]);
+            }
+            if (this.extraIterator != null) {
+                Int2FloatMap.Entry entry = this.extraIterator.next();
+                return new BasicEntry(entry.getIntKey(), entry.getFloatValue());
+            }
+            throw new NoSuchElementException();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import emu.grasscutter.data.binout.ScriptSceneData;
 import emu.grasscutter.data.excels.QuestData;
 import emu.grasscutter.data.excels.RewardData;
 import emu.grasscutter.database.DatabaseHelper;
+import emu.grasscutter.game.player.LoginPacketCache;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.props.ActionReason;
 import emu.grasscutter.game.quest.enums.*;
@@ -46,6 +47,11 @@ public class GameMainQuest {
     @Getter int[] suggestTrackMainQuestList;
     @Getter private Map<Integer,TalkData> talks;
 
+    // Child quests by the condition types they react to, built from quest data when first needed.
+    @Transient private Map<QuestCond, List<GameQuest>> acceptCondQuests;
+    @Transient private Map<QuestContent, List<GameQuest>> finishCondQuests;
+    @Transient private Map<QuestContent, List<GameQuest>> failCondQuests;
+
     @Deprecated // Morphia only. Do not use.
     public GameMainQuest() {}
 
@@ -71,6 +77,55 @@ public class GameMainQuest {
         }
     }
 
+    private synchronized void buildConditionIndex() {
+        if (this.acceptCondQuests != null) return;
+
+        Map<QuestCond, List<GameQuest>> acceptCondQuests = new EnumMap<>(QuestCond.class);
+        Map<QuestContent, List<GameQuest>> finishCondQuests = new EnumMap<>(QuestContent.class);
+        Map<QuestContent, List<GameQuest>> failCondQuests = new EnumMap<>(QuestContent.class);
+
+        for (GameQuest quest : this.getChildQuests().values()) {
+            QuestData questData = quest.getQuestData();
+            if (questData == null) continue;
+
+            if (questData.getAcceptCond() != null) {
+                questData.getAcceptCond().stream().map(QuestData.QuestAcceptCondition::getType).distinct()
+                    .forEach(type -> acceptCondQuests.computeIfAbsent(type, t -> new ArrayList<>()).add(quest));
+            }
+            if (questData.getFinishCond() != null) {
+                questData.getFinishCond().stream().map(QuestData.QuestContentCondition::getType).distinct()
+                    .forEach(type -> finishCondQuests.computeIfAbsent(type, t -> new ArrayList<>()).add(quest));
+            }
+            if (questData.getFailCond() != null) {
+                questData.getFailCond().stream().map(QuestData.QuestContentCondition::getType).distinct()
+                    .forEach(type -> failCondQuests.computeIfAbsent(type, t -> new ArrayList<>()).add(quest));
+            }
+        }
+
+        this.finishCondQuests = finishCondQuests;
+        this.failCondQuests = failCondQuests;
+        this.acceptCondQuests = acceptCondQuests;
+    }
+
+    /**
+     * @return The accept condition types used by this main quest's child quests.
+     */
+    public Set<QuestCond> getAcceptCondTypes() {
+        buildConditionIndex();
+        return this.acceptCondQuests.keySet();
+    }
+
+    /**
+     * @return The finish and fail condition types used by this main quest's child quests.
+     */
+    public Set<QuestContent> getContentCondTypes() {
+        buildConditionIndex();
+        Set<QuestContent> types = EnumSet.noneOf(QuestContent.class);
+        types.addAll(this.finishCondQuests.keySet());
+        types.addAll(this.failCondQuests.keySet());
+        return types;
+    }
+
     public Collection<GameQuest> getActiveQuests(){
         return childQuests.values().stream()
             .filter(q->q.getState().getValue() == QuestState.UNFINISHED.getValue())
@@ -121,6 +176,8 @@ public class GameMainQuest {
 
         this.isFinished = true;
         this.state = ParentQuestState.PARENT_QUEST_STATE_FINISHED;
+        LoginPacketCache.invalidateCodex(this.getOwnerUid());
+        this.getOwner().getQuestManager().unindexMainQuest(this);
 
          /*
             We also need to check for unfinished childQuests in this MainQuest
@@ -302,11 +359,16 @@ public class GameMainQuest {
 
     public void tryAcceptSubQuests(QuestCond condType, String paramStr, int... params) {
         try {
-            List<GameQuest> subQuestsWithCond = getChildQuests().values().stream()
+            buildConditionIndex();
+            Collection<GameQuest> candidates = condType == QuestCond.QUEST_COND_NONE ? getChildQuests().values()
+                : this.acceptCondQuests.getOrDefault(condType, List.of());
+            List<GameQuest> subQuestsWithCond = candidates.stream()
                 .filter(p -> p.getState() == QuestState.QUEST_STATE_UNSTARTED || p.getState() == QuestState.UNFINISHED)
-                .filter(p -> p.getQuestData().getAcceptCond().stream().anyMatch(q -> condType == QuestCond.QUEST_COND_NONE || q.getType() == condType))
+                .filter(p -> condType != QuestCond.QUEST_COND_NONE || !p.getQuestData().getAcceptCond().isEmpty())
                 .toList();
 
+            boolean changed = false;
+
             for (GameQuest subQuestWithCond : subQuestsWithCond) {
                 val acceptCond = subQuestWithCond.getQuestData().getAcceptCond();
                 int[] accept = new int[acceptCond.size()];
@@ -319,10 +381,16 @@ public class GameMainQuest {
 
                 boolean shouldAccept = LogicType.calculate(subQuestWithCond.getQuestData().getAcceptCondComb(), accept);
 
-                if (shouldAccept)
+                if (shouldAccept) {
                     subQuestWithCond.start();
+                    changed = true;
+                }
+            }
+
+            // Only write quests that were actually started
+            if (changed) {
+                this.save();
             }
-            this.save();
         } catch (Exception e) {
             Grasscutter.getLogger().error("An error occurred while trying to accept quest.", e);
         }
@@ -331,11 +399,13 @@ public class GameMainQuest {
 
     public void tryFailSubQuests(QuestContent condType, String paramStr, int... params) {
         try {
-            List<GameQuest> subQuestsWithCond = getChildQuests().values().stream()
+            buildConditionIndex();
+            List<GameQuest> subQuestsWithCond = this.failCondQuests.getOrDefault(condType, List.of()).stream()
                 .filter(p -> p.getState() == QuestState.QUEST_STATE_UNFINISHED)
-                .filter(p -> p.getQuestData().getFailCond().stream().anyMatch(q -> q.getType() == condType))
                 .toList();
 
+            boolean changed = false;
+
             for (GameQuest subQuestWithCond : subQuestsWithCond) {
                 val failCond = subQuestWithCond.getQuestData().getFailCond();
 
@@ -343,7 +413,12 @@ public class GameMainQuest {
                     val condition = failCond.get(i);
                     if (condition.getType() == condType) {
                         boolean result = this.getOwner().getServer().getQuestSystem().triggerContent(subQuestWithCond, condition, paramStr, params);
-                        subQuestWithCond.getFailProgressList()[i] = result ? 1 : 0;
+                        int progress = result ? 1 : 0;
+                        // Partial progress of quests with several conditions has to be saved as well
+                        if (subQuestWithCond.getFailProgressList()[i] != progress) {
+                            subQuestWithCond.getFailProgressList()[i] = progress;
+                            changed = true;
+                        }
                         if (result) {
                             getOwner().getSession().send(new PacketQuestProgressUpdateNotify(subQuestWithCond));
                         }
@@ -352,8 +427,14 @@ public class GameMainQuest {
 
                 boolean shouldFail = LogicType.calculate(subQuestWithCond.getQuestData().getFailCondComb(), subQuestWithCond.getFailProgressList());
 
-                if (shouldFail)
+                if (shouldFail) {
                     subQuestWithCond.fail();
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                this.save();
             }
 
         } catch (Exception e) {
@@ -363,12 +444,14 @@ public class GameMainQuest {
 
     public void tryFinishSubQuests(QuestContent condType, String paramStr, int... params) {
         try {
-            List<GameQuest> subQuestsWithCond = getChildQuests().values().stream()
+            buildConditionIndex();
+            List<GameQuest> subQuestsWithCond = this.finishCondQuests.getOrDefault(condType, List.of()).stream()
                 //There are subQuests with no acceptCond, but can be finished (example: 35104)
                 .filter(p -> p.getState() == QuestState.QUEST_STATE_UNFINISHED && p.getQuestData().getAcceptCond() != null)
-                .filter(p -> p.getQuestData().getFinishCond().stream().anyMatch(q -> q.getType() == condType))
                 .toList();
 
+            boolean changed = false;
+
             for (GameQuest subQuestWithCond : subQuestsWithCond) {
                 val finishCond = subQuestWithCond.getQuestData().getFinishCond();
 
@@ -376,7 +459,12 @@ public class GameMainQuest {
                     val condition = finishCond.get(i);
                     if (condition.getType() == condType) {
                         boolean result = this.getOwner().getServer().getQuestSystem().triggerContent(subQuestWithCond, condition, paramStr, params);
-                        subQuestWithCond.getFinishProgressList()[i] = result ? 1 : 0;
+                        int progress = result ? 1 : 0;
+                        // Partial progress of quests with several conditions has to be saved as well
+                        if (subQuestWithCond.getFinishProgressList()[i] != progress) {
+                            subQuestWithCond.getFinishProgressList()[i] = progress;
+                            changed = true;
+                        }
                         if (result) {
                             getOwner().getSession().send(new PacketQuestProgressUpdateNotify(subQuestWithCond));
                         }
@@ -385,8 +473,14 @@ public class GameMainQuest {
 
                 boolean shouldFinish = LogicType.calculate(subQuestWithCond.getQuestData().getFinishCondComb(), subQuestWithCond.getFinishProgressList());
 
-                if (shouldFinish)
+                if (shouldFinish) {
                     subQuestWithCond.finish();
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                this.save();
             }
         } catch (Exception e) {
             Grasscutter.getLogger().debug("An error occurred while trying to finish quest.", e);
@@ -399,6 +493,9 @@ public class GameMainQuest {
 
     public void delete() {
         DatabaseHelper.deleteQuest(this);
+        if (this.isFinished()) {
+            LoginPacketCache.invalidateCodex(this.getOwnerUid());
+        }
     }
 
     public ParentQuest toProto(boolean withChildQuests) {
@@ -1,10 +1,13 @@
 package emu.grasscutter.game.quest;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.data.GameData;
@@ -25,12 +28,27 @@ public class QuestManager extends BasePlayerManager {
 
     @Getter private final Player player;
     @Getter private final Int2ObjectMap<GameMainQuest> mainQuests;
+    // Unfinished main quests by the condition types their child quests react to.
+    private final Map<QuestCond, Set<GameMainQuest>> acceptCondIndex;
+    private final Map<QuestContent, Set<GameMainQuest>> contentCondIndex;
+    // Events of a player run in order, one at a time. Different players run in parallel.
+    // The queue holds at most one drain task per player. Events are never dropped, a player with a
+    // large backlog keeps the executor thread until it is worked off.
     public static final ExecutorService eventExecutor;
     static {
         eventExecutor = new ThreadPoolExecutor(4, 4,
-            60, TimeUnit.SECONDS, new LinkedBlockingDeque<>(1000),
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
             FastThreadLocalThread::new, new ThreadPoolExecutor.AbortPolicy());
     }
+    private static final int BACKLOG_WARNING = 1000;
+    private static final int EVENTS_PER_DRAIN = 64;
+    // Polling events that only make quests re-check the current state, a second one queued right behind the first changes nothing.
+    private static final Set<Enum<?>> COALESCED_EVENTS = Set.of(QuestContent.QUEST_CONTENT_GAME_TIME_TICK);
+    private static final AtomicInteger pendingEventCount = new AtomicInteger();
+    private static final LongAdder coalescedEventCount = new LongAdder();
+
+    private final Deque<QuestEvent> pendingEvents = new ArrayDeque<>();
+    private boolean drainingEvents;
     /*
         On SetPlayerBornDataReq, the server sends FinishedParentQuestNotify, with this exact
         parentQuestList. Captured on Game version 2.7
@@ -75,6 +93,39 @@ public class QuestManager extends BasePlayerManager {
         super(player);
         this.player = player;
         this.mainQuests = new Int2ObjectOpenHashMap<>();
+        this.acceptCondIndex = new ConcurrentHashMap<>();
+        this.contentCondIndex = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers a main quest so that events of the condition types used by its child quests reach it.
+     */
+    public void indexMainQuest(GameMainQuest mainQuest) {
+        if (mainQuest.getState() == ParentQuestState.PARENT_QUEST_STATE_FINISHED) {
+            return;
+        }
+
+        for (QuestCond type : mainQuest.getAcceptCondTypes()) {
+            this.acceptCondIndex.computeIfAbsent(type, t -> ConcurrentHashMap.newKeySet()).add(mainQuest);
+        }
+        for (QuestContent type : mainQuest.getContentCondTypes()) {
+            this.contentCondIndex.computeIfAbsent(type, t -> ConcurrentHashMap.newKeySet()).add(mainQuest);
+        }
+    }
+
+    public void unindexMainQuest(GameMainQuest mainQuest) {
+        this.acceptCondIndex.values().forEach(mainQuests -> mainQuests.remove(mainQuest));
+        this.contentCondIndex.values().forEach(mainQuests -> mainQuests.remove(mainQuest));
+    }
+
+    private List<GameMainQuest> getIndexedMainQuests(Map<?, Set<GameMainQuest>> index, Enum<?> type) {
+        Set<GameMainQuest> mainQuests = index.get(type);
+        if (mainQuests == null) {
+            return List.of();
+        }
+        return mainQuests.stream()
+            .filter(i -> i.getState() != ParentQuestState.PARENT_QUEST_STATE_FINISHED)
+            .toList();
     }
 
     public void onPlayerBorn() {
@@ -115,6 +166,7 @@ public class QuestManager extends BasePlayerManager {
         for (Integer id : mainQuestIds) {
             getMainQuests().put(id.intValue(),new GameMainQuest(this.player, id));
             getMainQuestById(id).save();
+            indexMainQuest(getMainQuestById(id));
             newQuests.add(getMainQuestById(id));
         }
         return newQuests;
@@ -196,6 +248,7 @@ public class QuestManager extends BasePlayerManager {
     public GameMainQuest addMainQuest(QuestData questConfig) {
         GameMainQuest mainQuest = new GameMainQuest(getPlayer(), questConfig.getMainId());
         getMainQuests().put(mainQuest.getParentQuestId(), mainQuest);
+        indexMainQuest(mainQuest);
 
         getPlayer().sendPacket(new PacketFinishedParentQuestUpdateNotify(mainQuest));
 
@@ -255,19 +308,90 @@ public class QuestManager extends BasePlayerManager {
     }
 
     public void queueEvent(QuestContent condType, String paramStr, int... params) {
-        eventExecutor.submit(() -> triggerEvent(condType, paramStr, params));
+        this.enqueue(new QuestEvent(condType, paramStr, params, () -> triggerEvent(condType, paramStr, params)));
     }
     public void queueEvent(QuestCond condType, String paramStr, int... params) {
-        eventExecutor.submit(() -> triggerEvent(condType, paramStr, params));
+        this.enqueue(new QuestEvent(condType, paramStr, params, () -> triggerEvent(condType, paramStr, params)));
+    }
+
+    /**
+     * Runs a task in order with this player's quest events.
+     */
+    public void queueTask(Runnable task) {
+        this.enqueue(new QuestEvent(null, null, null, task));
+    }
+
+    private void enqueue(QuestEvent event) {
+        synchronized (this.pendingEvents) {
+            // An identical polling event that has not run yet gives the same result.
+            QuestEvent last = this.pendingEvents.peekLast();
+            if (last != null && COALESCED_EVENTS.contains(event.type) && last.isSameEvent(event)) {
+                coalescedEventCount.increment();
+                return;
+            }
+
+            if (this.pendingEvents.size() == BACKLOG_WARNING) {
+                Grasscutter.getLogger().warn("Quest event backlog of player {} reached {} events.", getPlayer().getUid(), BACKLOG_WARNING);
+            }
+
+            this.pendingEvents.addLast(event);
+            pendingEventCount.incrementAndGet();
+
+            if (this.drainingEvents) {
+                return;
+            }
+            this.drainingEvents = true;
+        }
+
+        eventExecutor.execute(this::drainEvents);
+    }
+
+    private void drainEvents() {
+        for (int i = 0; ; i++) {
+            QuestEvent event;
+            synchronized (this.pendingEvents) {
+                // Yield after a batch, unless this player's backlog is too long to wait
+                if (i >= EVENTS_PER_DRAIN && this.pendingEvents.size() < BACKLOG_WARNING) {
+                    break;
+                }
+                event = this.pendingEvents.pollFirst();
+                if (event == null) {
+                    this.drainingEvents = false;
+                    return;
+                }
+            }
+            pendingEventCount.decrementAndGet();
+
+            try {
+                event.task.run();
+            } catch (Exception e) {
+                Grasscutter.getLogger().error("An error occurred while handling quest event {}", event.type, e);
+            }
+        }
+
+        // Give other players a turn before continuing.
+        eventExecutor.execute(this::drainEvents);
+    }
+
+    /**
+     * @return The number of quest events waiting to run, across all players.
+     */
+    public static int getPendingEventCount() {
+        return pendingEventCount.get();
+    }
+
+    /**
+     * @return The number of quest events merged into an identical pending event.
+     */
+    public static long getCoalescedEventCount() {
+        return coalescedEventCount.sum();
     }
 
     //QUEST_EXEC are handled directly by each subQuest
 
     public void triggerEvent(QuestCond condType, String paramStr, int... params) {
         Grasscutter.getLogger().debug("Trigger Event {}, {}, {}", condType, paramStr, params);
-        List<GameMainQuest> checkMainQuests = this.getMainQuests().values().stream()
-            .filter(i -> i.getState() != ParentQuestState.PARENT_QUEST_STATE_FINISHED)
-            .toList();
+        List<GameMainQuest> checkMainQuests = this.getIndexedMainQuests(this.acceptCondIndex, condType);
         switch (condType) {
             //accept Conds
             case QUEST_COND_STATE_EQUAL:
@@ -299,9 +423,7 @@ public class QuestManager extends BasePlayerManager {
     }
     public void triggerEvent(QuestContent condType, String paramStr, int... params) {
         Grasscutter.getLogger().debug("Trigger Event {}, {}, {}", condType, paramStr, params);
-        List<GameMainQuest> checkMainQuests = this.getMainQuests().values().stream()
-            .filter(i -> i.getState() != ParentQuestState.PARENT_QUEST_STATE_FINISHED)
-            .toList();
+        List<GameMainQuest> checkMainQuests = this.getIndexedMainQuests(this.contentCondIndex, condType);
         switch (condType) {
             //fail Conds
             case QUEST_CONTENT_NOT_FINISH_PLOT:
@@ -422,6 +544,7 @@ public class QuestManager extends BasePlayerManager {
 
             if (!cancelAdd) {
                 this.getMainQuests().put(mainQuest.getParentQuestId(), mainQuest);
+                this.indexMainQuest(mainQuest);
             }
         }
     }
@@ -429,4 +552,24 @@ public class QuestManager extends BasePlayerManager {
     public List<GameMainQuest> getActiveMainQuests() {
         return getMainQuests().values().stream().filter(p -> !p.isFinished()).toList();
     }
+
+    private static class QuestEvent {
+        private final Enum<?> type;
+        private final String paramStr;
+        private final int[] params;
+        private final Runnable task;
+
+        private QuestEvent(Enum<?> type, String paramStr, int[] params, Runnable task) {
+            this.type = type;
+            this.paramStr = paramStr;
+            this.params = params;
+            this.task = task;
+        }
+
+        private boolean isSameEvent(QuestEvent other) {
+            return this.type != null && this.type == other.type
+                && Objects.equals(this.paramStr, other.paramStr)
+                && Arrays.equals(this.params, other.params);
+        }
+    }
 }
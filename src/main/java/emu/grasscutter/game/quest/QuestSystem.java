@@ -102,7 +102,7 @@ public class QuestSystem extends BaseGameSystem {
             return;
         }
 
-        QuestManager.eventExecutor.submit(() -> {
+        quest.getOwner().getQuestManager().queueTask(() -> {
             if(!handler.execute(quest, execParam, params)){
                 Grasscutter.getLogger().debug("exec trigger failed {} at {}", execParam.getType().getValue(), quest.getQuestData());
             }
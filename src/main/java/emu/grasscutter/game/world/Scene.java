@@ -1,5 +1,7 @@
 package emu.grasscutter.game.world;
 
+import static emu.grasscutter.config.Configuration.GAME_OPTIONS;
+
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.data.GameData;
 import emu.grasscutter.data.GameDepot;
@@ -45,6 +47,11 @@ import java.util.stream.Collectors;
 
 
 public class Scene {
+    /* Spawned entities are only despawned for pending spawns that are at least this much closer to a player. */
+    private static final double ENTITY_LIMIT_MARGIN = 32;
+    /* How often spawns held back by the entity limit are retried while the view does not change (milliseconds). */
+    private static final long DEFERRED_SPAWN_RETRY_INTERVAL = 5000;
+
     @Getter private final World world;
     @Getter private final SceneData sceneData;
     @Getter private final List<Player> players;
@@ -55,6 +62,10 @@ public class Scene {
     @Getter private final BlossomManager blossomManager;
     private Set<SpawnDataEntry.GridBlockId> loadedGridBlocks;
     @Getter @Setter private boolean dontDestroyWhenEmpty;
+    private long suspendedAt; // When the last player left, 0 while in use
+    private boolean spawnsDeferred; // Static spawns were held back by the entity limit
+    private long nextDeferredSpawnRetry;
+    private int spawnCheckPlayers; // Player count at the last spawn check
 
     @Getter private int time;
     private long startTime;
@@ -170,6 +181,12 @@ public class Scene {
         player.setSceneId(this.getId());
         player.setScene(this);
 
+        // Reattach to a scene that was kept after the last player left
+        if (this.suspendedAt != 0) {
+            this.suspendedAt = 0;
+            this.getWorld().onWarmSceneHit();
+        }
+
         this.setupPlayerAvatars(player);
     }
 
@@ -191,12 +208,31 @@ public class Scene {
             this.removeEntity(gadget);
         }
 
-        // Deregister scene if not in use
+        // Deregister scene if not in use, or keep it for a while in case the player comes back
         if (this.getPlayerCount() <= 0 && !this.dontDestroyWhenEmpty) {
-            this.getWorld().deregisterScene(this);
+            // Dungeons start over when entered again, so only open world and home scenes are kept
+            if (GAME_OPTIONS.sceneKeepAliveSeconds > 0 && this.getSceneType() != SceneType.SCENE_DUNGEON) {
+                this.suspendedAt = System.currentTimeMillis();
+            } else {
+                this.getWorld().deregisterScene(this);
+            }
         }
     }
 
+    /**
+     * @return True if the scene is empty and only kept in case a player returns. Suspended scenes are not ticked.
+     */
+    public boolean isSuspended() {
+        return this.suspendedAt != 0;
+    }
+
+    /**
+     * @return True if the scene has been suspended for longer than the configured keep alive time.
+     */
+    public boolean isSuspensionExpired(long now) {
+        return this.suspendedAt != 0 && now - this.suspendedAt >= GAME_OPTIONS.sceneKeepAliveSeconds * 1000L;
+    }
+
     private void setupPlayerAvatars(Player player) {
         // Clear entities from old team
         player.getTeamManager().getActiveTeam().clear();
@@ -267,6 +303,35 @@ public class Scene {
         this.broadcastPacket(new PacketSceneEntityAppearNotify(entities, visionType));
     }
 
+    /**
+     * Adds a batch of entities, sending each player a single appear notify
+     * with the shared entities and the ones only visible to them.
+     * @param shared Entities visible to every player in the scene.
+     * @param personal Entities visible to a single player, by player.
+     */
+    public synchronized void addEntities(Collection<? extends GameEntity> shared, Map<Player, ? extends Collection<? extends GameEntity>> personal) {
+        shared.forEach(this::addEntityDirectly);
+        personal.values().forEach(entities -> entities.forEach(this::addEntityDirectly));
+
+        BasePacket sharedPacket = null;
+        for (Player player : this.getPlayers()) {
+            Collection<? extends GameEntity> own = personal.get(player);
+            if (own == null || own.isEmpty()) {
+                if (shared.isEmpty()) continue;
+                if (sharedPacket == null) {
+                    sharedPacket = new PacketSceneEntityAppearNotify(shared, VisionType.VISION_TYPE_BORN);
+                }
+                player.sendPacket(sharedPacket);
+                continue;
+            }
+
+            List<GameEntity> visible = new ArrayList<>(shared.size() + own.size());
+            visible.addAll(shared);
+            visible.addAll(own);
+            player.sendPacket(new PacketSceneEntityAppearNotify(visible, VisionType.VISION_TYPE_BORN));
+        }
+    }
+
     private GameEntity removeEntityDirectly(GameEntity entity) {
         var removed = getEntities().remove(entity.getId());
         if (removed != null) {
@@ -373,6 +438,11 @@ public class Scene {
     }
 
     public void onTick() {
+        // Nobody to spawn or run scripts for
+        if (this.isSuspended()) {
+            return;
+        }
+
         // disable script for home
         if (this.getSceneType() == SceneType.SCENE_HOME_WORLD || this.getSceneType() == SceneType.SCENE_HOME_ROOM) {
             finishLoading();
@@ -421,6 +491,69 @@ public class Scene {
 
         return level;
     }
+    /**
+     * Keeps the scene within {@code sceneEntityLimit}. Only entities from static spawn entries are
+     * limited, script and quest entities are always kept but count towards the limit. When over it,
+     * the spawn entries and spawned entities nearest to a player are kept, the farthest pending
+     * entries are deferred and the farthest spawned entities are despawned until they are in budget again.
+     * Spawned entities are ranked {@link #ENTITY_LIMIT_MARGIN} closer than they are, so entities near the
+     * cutoff are not despawned and respawned (with full HP) every time a player moves a little.
+     * @param pending Spawn entries about to be spawned.
+     * @param toRemove Entities about to be removed, despawned entities are added to it.
+     * @return The spawn entries that fit in the budget.
+     */
+    private List<SpawnDataEntry> applyEntityLimit(List<SpawnDataEntry> pending, List<GameEntity> toRemove) {
+        int limit = GAME_OPTIONS.sceneEntityLimit;
+        int total = this.getEntities().size() - toRemove.size() + pending.size();
+        if (limit <= 0 || total <= limit) {
+            this.spawnsDeferred = false;
+            return pending;
+        }
+
+        // Everything that may be deferred or despawned, with its distance to the nearest player
+        Set<GameEntity> removed = new HashSet<>(toRemove);
+        List<SpawnCandidate> candidates = new ArrayList<>(pending.size());
+        for (SpawnDataEntry entry : pending) {
+            candidates.add(new SpawnCandidate(entry, null, this.getDistanceToNearestPlayer(entry.getPos())));
+        }
+        for (GameEntity entity : this.getEntities().values()) {
+            if (entity.getSpawnEntry() != null && !removed.contains(entity)) {
+                candidates.add(new SpawnCandidate(entity.getSpawnEntry(), entity, this.getDistanceToNearestPlayer(entity.getPosition()) - ENTITY_LIMIT_MARGIN));
+            }
+        }
+
+        int budget = Math.max(limit - (total - candidates.size()), 0);
+        candidates.sort(Comparator.comparingDouble(SpawnCandidate::distance));
+
+        List<SpawnDataEntry> accepted = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            SpawnCandidate candidate = candidates.get(i);
+            if (i < budget) {
+                if (candidate.entity() == null) accepted.add(candidate.entry());
+            } else if (candidate.entity() != null) {
+                toRemove.add(candidate.entity());
+                this.getSpawnedEntities().remove(candidate.entry());
+            }
+        }
+
+        this.spawnsDeferred = true;
+        this.nextDeferredSpawnRetry = System.currentTimeMillis() + DEFERRED_SPAWN_RETRY_INTERVAL;
+        return accepted;
+    }
+
+    private record SpawnCandidate(SpawnDataEntry entry, GameEntity entity, double distance) {}
+
+    /**
+     * @return The distance from the position to the nearest player in the scene, infinite if there are none.
+     */
+    public double getDistanceToNearestPlayer(Position position) {
+        double min = Double.POSITIVE_INFINITY;
+        for (Player player : this.getPlayers()) {
+            min = Math.min(min, player.getPosition().computeDistance(position));
+        }
+        return min;
+    }
+
     public void checkNpcGroup() {
         Set<SceneNpcBornEntry> npcBornEntries = ConcurrentHashMap.newKeySet();
         for (Player player : this.getPlayers()) {
@@ -447,10 +580,14 @@ public class Scene {
             for (SpawnDataEntry.GridBlockId block : SpawnDataEntry.GridBlockId.getAdjacentGridBlockIds(player.getSceneId(), player.getPosition()))
                 loadedGridBlocks.add(block);
         }
-        if (this.loadedGridBlocks.containsAll(loadedGridBlocks)) {  // Don't recalculate static spawns if nothing has changed
+        // Don't recalculate static spawns if nothing has changed. Spawns held back by the entity limit
+        // are retried now and then, since killed entities may have made room for them
+        boolean retryDeferred = this.spawnsDeferred && System.currentTimeMillis() >= this.nextDeferredSpawnRetry;
+        if (!retryDeferred && this.spawnCheckPlayers == this.getPlayerCount() && this.loadedGridBlocks.containsAll(loadedGridBlocks)) {
             return;
         }
         this.loadedGridBlocks = loadedGridBlocks;
+        this.spawnCheckPlayers = this.getPlayerCount();
         var spawnLists = GameDepot.getSpawnLists();
         Set<SpawnDataEntry> visible = new HashSet<>();
         for (var block : loadedGridBlocks) {
@@ -468,58 +605,17 @@ public class Scene {
             worldLevelOverride = worldLevelData.getMonsterLevel();
         }
 
-        // Todo
-        List<GameEntity> toAdd = new LinkedList<>();
-        List<GameEntity> toRemove = new LinkedList<>();
+        // Spawn entries in our view that havent been spawned/killed yet
         var spawnedEntities = this.getSpawnedEntities();
+        List<SpawnDataEntry> pending = new ArrayList<>();
         for (SpawnDataEntry entry : visible) {
-            // If spawn entry is in our view and hasnt been spawned/killed yet, we should spawn it
             if (!spawnedEntities.contains(entry) && !this.getDeadSpawnedEntities().contains(entry)) {
-                // Entity object holder
-                GameEntity entity = null;
-
-                // Check if spawn entry is monster or gadget
-                if (entry.getMonsterId() > 0) {
-                    MonsterData data = GameData.getMonsterDataMap().get(entry.getMonsterId());
-                    if (data == null) continue;
-
-                    int level = this.getEntityLevel(entry.getLevel(), worldLevelOverride);
-
-                    EntityMonster monster = new EntityMonster(this, data, entry.getPos(), level);
-                    monster.getRotation().set(entry.getRot());
-                    monster.setGroupId(entry.getGroup().getGroupId());
-                    monster.setPoseId(entry.getPoseId());
-                    monster.setConfigId(entry.getConfigId());
-                    monster.setSpawnEntry(entry);
-
-                    entity = monster;
-                } else if (entry.getGadgetId() > 0) {
-                    EntityGadget gadget = new EntityGadget(this, entry.getGadgetId(), entry.getPos(), entry.getRot());
-                    gadget.setGroupId(entry.getGroup().getGroupId());
-                    gadget.setConfigId(entry.getConfigId());
-                    gadget.setSpawnEntry(entry);
-                    int state = entry.getGadgetState();
-                    if (state>0) {
-                        gadget.setState(state);
-                    }
-                    gadget.buildContent();
-
-                    gadget.setFightProperty(FightProperty.FIGHT_PROP_BASE_HP, Float.POSITIVE_INFINITY);
-                    gadget.setFightProperty(FightProperty.FIGHT_PROP_CUR_HP, Float.POSITIVE_INFINITY);
-                    gadget.setFightProperty(FightProperty.FIGHT_PROP_MAX_HP, Float.POSITIVE_INFINITY);
-
-                    entity = gadget;
-                    blossomManager.initBlossom(gadget);
-                }
-
-                if (entity == null) continue;
-
-                // Add to scene and spawned list
-                toAdd.add(entity);
-                spawnedEntities.add(entry);
+                pending.add(entry);
             }
         }
 
+        // Spawned entities that went out of view
+        List<GameEntity> toRemove = new LinkedList<>();
         for (GameEntity entity : this.getEntities().values()) {
             var spawnEntry = entity.getSpawnEntry();
             if (spawnEntry != null && !visible.contains(spawnEntry)) {
@@ -528,6 +624,55 @@ public class Scene {
             }
         }
 
+        // Keep within the entity budget
+        pending = this.applyEntityLimit(pending, toRemove);
+
+        List<GameEntity> toAdd = new LinkedList<>();
+        for (SpawnDataEntry entry : pending) {
+            // Entity object holder
+            GameEntity entity = null;
+
+            // Check if spawn entry is monster or gadget
+            if (entry.getMonsterId() > 0) {
+                MonsterData data = GameData.getMonsterDataMap().get(entry.getMonsterId());
+                if (data == null) continue;
+
+                int level = this.getEntityLevel(entry.getLevel(), worldLevelOverride);
+
+                EntityMonster monster = new EntityMonster(this, data, entry.getPos(), level);
+                monster.getRotation().set(entry.getRot());
+                monster.setGroupId(entry.getGroup().getGroupId());
+                monster.setPoseId(entry.getPoseId());
+                monster.setConfigId(entry.getConfigId());
+                monster.setSpawnEntry(entry);
+
+                entity = monster;
+            } else if (entry.getGadgetId() > 0) {
+                EntityGadget gadget = new EntityGadget(this, entry.getGadgetId(), entry.getPos(), entry.getRot());
+                gadget.setGroupId(entry.getGroup().getGroupId());
+                gadget.setConfigId(entry.getConfigId());
+                gadget.setSpawnEntry(entry);
+                int state = entry.getGadgetState();
+                if (state>0) {
+                    gadget.setState(state);
+                }
+                gadget.buildContent();
+
+                gadget.setFightProperty(FightProperty.FIGHT_PROP_BASE_HP, Float.POSITIVE_INFINITY);
+                gadget.setFightProperty(FightProperty.FIGHT_PROP_CUR_HP, Float.POSITIVE_INFINITY);
+                gadget.setFightProperty(FightProperty.FIGHT_PROP_MAX_HP, Float.POSITIVE_INFINITY);
+
+                entity = gadget;
+                blossomManager.initBlossom(gadget);
+            }
+
+            if (entity == null) continue;
+
+            // Add to scene and spawned list
+            toAdd.add(entity);
+            spawnedEntities.add(entry);
+        }
+
         if (toAdd.size() > 0) {
             toAdd.stream().forEach(this::addEntityDirectly);
             this.broadcastPacket(new PacketSceneEntityAppearNotify(toAdd, VisionType.VISION_TYPE_BORN));
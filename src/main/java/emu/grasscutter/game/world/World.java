@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import emu.grasscutter.game.dungeons.DungeonManager;
@@ -37,6 +38,10 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import static emu.grasscutter.server.event.player.PlayerTeleportEvent.TeleportType.SCRIPT;
 
 public class World implements Iterable<Player> {
+    private static final LongAdder warmSceneHits = new LongAdder();
+    private static final LongAdder coldSceneCreates = new LongAdder();
+    private static final LongAdder sceneEvictions = new LongAdder();
+
     private final GameServer server;
     private final Player owner;
     private final List<Player> players;
@@ -117,6 +122,7 @@ public class World implements Iterable<Player> {
         if (sceneData != null) {
             scene = new Scene(this, sceneData);
             this.registerScene(scene);
+            coldSceneCreates.increment();
             return scene;
         }
 
@@ -210,6 +216,32 @@ public class World implements Iterable<Player> {
 
     public void deregisterScene(Scene scene) {
         this.getScenes().remove(scene.getId());
+        scene.getScriptManager().cancelAllGroupTimers();
+    }
+
+    void onWarmSceneHit() {
+        warmSceneHits.increment();
+    }
+
+    /**
+     * @return How often a player entered a scene that was kept after being emptied.
+     */
+    public static long getWarmSceneHits() {
+        return warmSceneHits.sum();
+    }
+
+    /**
+     * @return How often a scene had to be created.
+     */
+    public static long getColdSceneCreates() {
+        return coldSceneCreates.sum();
+    }
+
+    /**
+     * @return How often an emptied scene was destroyed after nobody came back in time.
+     */
+    public static long getSceneEvictions() {
+        return sceneEvictions.sum();
     }
 
     public boolean transferPlayerToScene(Player player, int sceneId, Position pos) {
@@ -353,13 +385,37 @@ public class World implements Iterable<Player> {
 
     // Returns true if the world should be deleted
     public boolean onTick() {
-        if (this.getPlayerCount() == 0) return true;
+        if (this.getPlayerCount() == 0) {
+            this.close();
+            return true;
+        }
         this.scenes.forEach((k, scene) -> scene.onTick());
+
+        // Destroy emptied scenes nobody came back to
+        long now = System.currentTimeMillis();
+        List<Scene> expired = new ArrayList<>();
+        synchronized (this.scenes) {
+            this.scenes.values().forEach(scene -> {
+                if (scene.isSuspensionExpired(now)) expired.add(scene);
+            });
+        }
+        expired.forEach(scene -> {
+            this.deregisterScene(scene);
+            sceneEvictions.increment();
+        });
         return false;
     }
 
+    /**
+     * Deregisters every scene left, including those kept warm for players coming back,
+     * so their group timers are canceled before the world is discarded.
+     */
     public void close() {
-
+        List<Scene> remaining;
+        synchronized (this.scenes) {
+            remaining = new ArrayList<>(this.scenes.values());
+        }
+        remaining.forEach(this::deregisterScene);
     }
 
     @Override
@@ -0,0 +1,60 @@
+package emu.grasscutter.net.packet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Reads and writes the entries of a repeated message field as their wire bytes,
+ * so entries that are only forwarded do not have to be serialized again.
+ */
+public final class RepeatedFieldBytes {
+    private RepeatedFieldBytes() {}
+
+    /**
+     * @return The wire bytes of every entry of the field, in order. Other fields are skipped.
+     */
+    public static List<ByteString> read(byte[] message, int fieldNumber) throws IOException {
+        List<ByteString> entries = new ArrayList<>();
+        int entryTag = (fieldNumber << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+        CodedInputStream input = CodedInputStream.newInstance(message);
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == entryTag) {
+                entries.add(input.readBytes());
+            } else if (!input.skipField(tag)) {
+                break;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return A message holding only the given entries in the field. Repeated fields of concatenated
+     * messages are merged, so the result may also be appended to another serialized message.
+     */
+    public static byte[] write(int fieldNumber, List<ByteString> entries) {
+        int size = 0;
+        for (ByteString entry : entries) {
+            size += CodedOutputStream.computeBytesSize(fieldNumber, entry);
+        }
+
+        byte[] data = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(data);
+        try {
+            for (ByteString entry : entries) {
+                output.writeBytes(fieldNumber, entry);
+            }
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return data;
+    }
+}
@@ -225,6 +225,24 @@ public final class PluginManager {
         this.listeners.get(plugin).add(listener);
     }
 
+    /**
+     * Checks if any registered listener would receive events of the given type.
+     * Lets hot paths skip building events nobody listens to.
+     *
+     * @param eventType The type of the event.
+     * @return True if at least one listener handles the event type.
+     */
+    public boolean hasListeners(Class<? extends Event> eventType) {
+        for (List<EventHandler<? extends Event>> handlers : this.listeners.values()) {
+            for (EventHandler<? extends Event> handler : handlers) {
+                if (handler.handles().isAssignableFrom(eventType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Invoke the provided event on all registered event listeners.
      *
@@ -53,6 +53,14 @@ public class SceneScriptManager {
                 60, TimeUnit.SECONDS, new LinkedBlockingDeque<>(1000),
                 FastThreadLocalThread::new, new ThreadPoolExecutor.AbortPolicy());
     }
+
+    /**
+     * @return The number of script events waiting for an executor thread.
+     */
+    public static int getEventQueueSize() {
+        return ((ThreadPoolExecutor) eventExecutor).getQueue().size();
+    }
+
     public SceneScriptManager(Scene scene) {
         this.scene = scene;
         this.currentTriggers = new ConcurrentHashMap<>();
@@ -599,9 +607,12 @@ public class SceneScriptManager {
             if(trigger.event == EVENT_TIMER_EVENT &&trigger.source.equals(source)){
                 Grasscutter.getLogger().warn("[LUA] Found timer trigger with source {} for group {} : {}",
                     source, groupID, trigger.name);
-                var taskIdentifier = Grasscutter.getGameServer().getScheduler().scheduleDelayedRepeatingTask(() ->
-                    callEvent(new ScriptArgs(EVENT_TIMER_EVENT)
-                        .setEventSource(source)), (int)time, (int)time);
+                var taskIdentifier = Grasscutter.getGameServer().getScheduler().scheduleDelayedRepeatingTask(() -> {
+                    // Timers are paused while the scene is empty
+                    if (!getScene().isSuspended()) {
+                        callEvent(new ScriptArgs(EVENT_TIMER_EVENT).setEventSource(source));
+                    }
+                }, (int)time, (int)time);
                 var groupTasks = activeGroupTimers.computeIfAbsent(groupID, k -> new HashSet<>());
                 groupTasks.add(new Pair<>(source, taskIdentifier));
 
@@ -624,4 +635,13 @@ public class SceneScriptManager {
         return 1;
     }
 
+    /**
+     * Cancels the timers of all groups, used when the scene is destroyed.
+     */
+    public void cancelAllGroupTimers() {
+        activeGroupTimers.values().forEach(timers -> timers.forEach(timer ->
+            Grasscutter.getGameServer().getScheduler().cancelTask(timer.component2())));
+        activeGroupTimers.clear();
+    }
+
 }
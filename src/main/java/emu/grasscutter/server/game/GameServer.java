@@ -17,6 +17,7 @@ import emu.grasscutter.game.managers.cooking.CookingCompoundManager;
 import emu.grasscutter.game.managers.cooking.CookingManager;
 import emu.grasscutter.game.managers.energy.EnergyManager;
 import emu.grasscutter.game.managers.stamina.StaminaManager;
+import emu.grasscutter.game.player.LoginPacketCache;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.quest.QuestSystem;
 import emu.grasscutter.game.shop.ShopSystem;
@@ -53,6 +54,9 @@ public final class GameServer extends KcpServer {
     private final InetSocketAddress address;
     private final GameServerPacketHandler packetHandler;
     private final Map<Integer, Player> players;
+    private final Map<String, Player> playersByAccountId;
+    private final Map<String, Player> playersByUsername;
+    private final SocialDetailCache socialDetailCache;
     private final Set<World> worlds;
 
     // Server systems
@@ -102,6 +106,9 @@ public final class GameServer extends KcpServer {
         this.address = address;
         this.packetHandler = new GameServerPacketHandler(PacketHandler.class);
         this.players = new ConcurrentHashMap<>();
+        this.playersByAccountId = new ConcurrentHashMap<>();
+        this.playersByUsername = new ConcurrentHashMap<>();
+        this.socialDetailCache = new SocialDetailCache();
         this.worlds = Collections.synchronizedSet(new HashSet<>());
 
         // Extra
@@ -163,6 +170,15 @@ public final class GameServer extends KcpServer {
 
     public void registerPlayer(Player player) {
         getPlayers().put(player.getUid(), player);
+        this.playersByAccountId.put(player.getAccount().getId(), player);
+        this.playersByUsername.put(player.getAccount().getUsername(), player);
+    }
+
+    public void deregisterPlayer(Player player) {
+        // Only remove the entries still mapped to this player object, a duplicated login may have replaced them already.
+        getPlayers().remove(player.getUid(), player);
+        this.playersByAccountId.remove(player.getAccount().getId(), player);
+        this.playersByUsername.remove(player.getAccount().getUsername(), player);
     }
 
     public Player getPlayerByUid(int id) {
@@ -191,31 +207,36 @@ public final class GameServer extends KcpServer {
     }
 
     public Player getPlayerByAccountId(String accountId) {
-        Optional<Player> playerOpt = getPlayers().values().stream().filter(player -> player.getAccount().getId().equals(accountId)).findFirst();
-        return playerOpt.orElse(null);
+        return this.playersByAccountId.get(accountId);
     }
 
     public SocialDetail.Builder getSocialDetailByUid(int id) {
-        // Get from online players
-        Player player = this.getPlayerByUid(id, true);
-
-        if (player == null) {
+        // Console check
+        if (id == GameConstants.SERVER_CONSOLE_UID) {
             return null;
         }
 
-        return player.getSocialDetail();
+        // Get from online players
+        Player player = this.getPlayers().get(id);
+        if (player != null) {
+            return player.getSocialDetail();
+        }
+
+        // Offline players are cached
+        return this.socialDetailCache.get(id);
     }
 
     public Account getAccountByName(String username) {
-        Optional<Player> playerOpt = getPlayers().values().stream().filter(player -> player.getAccount().getUsername().equals(username)).findFirst();
-        if (playerOpt.isPresent()) {
-            return playerOpt.get().getAccount();
+        Player player = this.playersByUsername.get(username);
+        if (player != null) {
+            return player.getAccount();
         }
         return DatabaseHelper.getAccountByName(username);
     }
 
     public synchronized void onTick() {
         var tickStart = Instant.now();
+        long tickStartNanos = System.nanoTime();
 
         // Tick worlds.
         this.worlds.removeIf(World::onTick);
@@ -223,12 +244,18 @@ public final class GameServer extends KcpServer {
         // Tick players.
         this.players.values().forEach(Player::onTick);
 
+        // Drop cached login packets of players that did not come back.
+        LoginPacketCache.purgeExpired();
+
         // Tick scheduler.
         this.getScheduler().runTasks();
 
         // Call server tick event.
         ServerTickEvent event = new ServerTickEvent(tickStart, Instant.now());
         event.call();
+
+        // Record the tick for the metrics endpoint.
+        ServerMetrics.onTick(this, (System.nanoTime() - tickStartNanos) / 1000);
     }
 
     public void registerWorld(World world) {
@@ -269,5 +296,8 @@ public final class GameServer extends KcpServer {
         for (Player player : list) {
             player.getSession().close();
         }
+
+        // Stop the async task workers.
+        this.getScheduler().shutdown();
     }
 }
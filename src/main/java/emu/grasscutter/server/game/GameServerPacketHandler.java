@@ -3,6 +3,7 @@ package emu.grasscutter.server.game;
 import static emu.grasscutter.config.Configuration.*;
 
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import emu.grasscutter.game.Account;
 import emu.grasscutter.server.event.game.ReceivePacketEvent;
@@ -15,14 +16,19 @@ import emu.grasscutter.net.packet.PacketHandler;
 import emu.grasscutter.net.packet.PacketOpcodes;
 import emu.grasscutter.server.game.GameSession.SessionState;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 
 @SuppressWarnings("unchecked")
 public class GameServerPacketHandler {
     private final Int2ObjectMap<PacketHandler> handlers;
+    // Stats are created when a handler is registered, so the packet path only looks them up.
+    private final Int2ObjectMap<PacketHandlerStats> handlerStats;
+    private final LongAdder unhandledPackets = new LongAdder();
 
     public GameServerPacketHandler(Class<? extends PacketHandler> handlerClass) {
         this.handlers = new Int2ObjectOpenHashMap<>();
+        this.handlerStats = new Int2ObjectOpenHashMap<>();
 
         this.registerHandlers(handlerClass);
     }
@@ -38,6 +44,7 @@ public class GameServerPacketHandler {
             PacketHandler packetHandler = handlerClass.getDeclaredConstructor().newInstance();
 
             this.handlers.put(opcode.value(), packetHandler);
+            this.handlerStats.putIfAbsent(opcode.value(), new PacketHandlerStats(opcode.value()));
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -55,10 +62,24 @@ public class GameServerPacketHandler {
         Grasscutter.getLogger().debug("Registered " + this.handlers.size() + " " + handlerClass.getSimpleName() + "s");
     }
 
+    /**
+     * @return Received packets and handler run times by opcode, for every opcode with a handler.
+     */
+    public Int2ObjectMap<PacketHandlerStats> getHandlerStats() {
+        return Int2ObjectMaps.unmodifiable(this.handlerStats);
+    }
+
+    public long getUnhandledPackets() {
+        return this.unhandledPackets.sum();
+    }
+
     public void handle(GameSession session, int opcode, byte[] header, byte[] payload) {
         PacketHandler handler = this.handlers.get(opcode);
 
         if (handler != null) {
+            PacketHandlerStats stats = this.handlerStats.get(opcode);
+            stats.onReceived();
+
             try {
                 // Make sure session is ready for packets
                 SessionState state = session.getState();
@@ -89,8 +110,11 @@ public class GameServerPacketHandler {
                 // Invoke event.
                 ReceivePacketEvent event = new ReceivePacketEvent(session, opcode, payload);
                 event.call();
-                if (!event.isCanceled()) // If event is not canceled, continue.
+                if (!event.isCanceled()) { // If event is not canceled, continue.
+                    long start = System.nanoTime();
                     handler.handle(session, header, event.getPacketData());
+                    stats.onHandled(session, System.nanoTime() - start);
+                }
             } catch (Exception ex) {
                 // TODO Remove this when no more needed
                 ex.printStackTrace();
@@ -99,6 +123,7 @@ public class GameServerPacketHandler {
         }
 
         // Log unhandled packets
+        this.unhandledPackets.increment();
         if (GAME_INFO.logPackets == ServerDebugMode.MISSING || GAME_INFO.logPackets == ServerDebugMode.ALL) {
             Grasscutter.getLogger().info("Unhandled packet (" + opcode + "): " + emu.grasscutter.net.packet.PacketOpcodesUtils.getOpcodeName(opcode));
         }
@@ -97,9 +97,11 @@ public class GameSession implements GameSessionManager.KcpChannel {
     }
 
     public void logPacket(String sendOrRecv, int opcode, byte[] payload) {
-        Grasscutter.getLogger().info(sendOrRecv + ": " + PacketOpcodesUtils.getOpcodeName(opcode) + " (" + opcode + ")");
+        // One event with the payload, so the log thread writes it right below its header
         if (GAME_INFO.isShowPacketPayload)
-            System.out.println(Utils.bytesToHex(payload));
+            Grasscutter.getLogger().info("{}: {} ({})\n{}", sendOrRecv, PacketOpcodesUtils.getOpcodeName(opcode), opcode, Utils.bytesToHex(payload));
+        else
+            Grasscutter.getLogger().info("{}: {} ({})", sendOrRecv, PacketOpcodesUtils.getOpcodeName(opcode), opcode);
     }
 
     public void send(BasePacket packet) {
@@ -252,6 +254,14 @@ public class GameSession implements GameSessionManager.KcpChannel {
         tunnel.close();
     }
 
+    /**
+     * @return The smoothed round trip time of the connection in milliseconds, or -1 if it is closed.
+     */
+    public int getSrtt() {
+        var tunnel = this.tunnel;
+        return tunnel != null ? tunnel.getSrtt() : -1;
+    }
+
     public boolean isActive() {
         return getState() == SessionState.ACTIVE;
     }
@@ -259,6 +269,7 @@ public class GameSession implements GameSessionManager.KcpChannel {
     public enum SessionState {
         INACTIVE,
         WAITING_FOR_TOKEN,
+        VERIFYING_TOKEN,
         WAITING_FOR_LOGIN,
         PICKING_CHARACTER,
         ACTIVE,
@@ -1,6 +1,8 @@
 package emu.grasscutter.server.game;
 
 import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.ConcurrentHashMap;
 
 import emu.grasscutter.Grasscutter;
@@ -96,6 +98,34 @@ public class GameSessionManager {
         return listener;
     }
 
+    /**
+     * @return A live view of all connected sessions.
+     */
+    public static Collection<GameSession> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    /**
+     * Queues a task on the thread that handles session packets.
+     * Used to hand work that was offloaded to another pool back to the session.
+     */
+    public static void executeOnLogicThread(Runnable task) {
+        logicThread.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * @return True if called from the thread that handles session packets.
+     */
+    public static boolean isLogicThread() {
+        return logicThread.inEventLoop();
+    }
+
     interface KcpTunnel{
         InetSocketAddress getAddress();
         void writeData(byte[] bytes);
@@ -0,0 +1,76 @@
+package emu.grasscutter.server.game;
+
+import emu.grasscutter.Grasscutter;
+import emu.grasscutter.net.packet.PacketOpcodesUtils;
+import emu.grasscutter.utils.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static emu.grasscutter.config.Configuration.*;
+
+/**
+ * How often the handler of an opcode ran and how long it took.
+ */
+public final class PacketHandlerStats {
+    /* Slow runs of the same handler are logged at most this often (milliseconds). */
+    private static final long SLOW_LOG_INTERVAL = 10_000;
+
+    private final int opcode;
+    private final LongAdder received = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong nextSlowLog = new AtomicLong();
+    private final LongAdder suppressedSlowLogs = new LongAdder();
+
+    PacketHandlerStats(int opcode) {
+        this.opcode = opcode;
+    }
+
+    public int getOpcode() {
+        return this.opcode;
+    }
+
+    public String getOpcodeName() {
+        return PacketOpcodesUtils.getOpcodeName(this.opcode);
+    }
+
+    public long getReceived() {
+        return this.received.sum();
+    }
+
+    /**
+     * @return Run times of the handler, in microseconds.
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    void onReceived() {
+        this.received.increment();
+    }
+
+    void onHandled(GameSession session, long nanos) {
+        long micros = nanos / 1000;
+        this.latency.record(micros);
+
+        int threshold = GAME_INFO.slowPacketHandlerMillis;
+        if (threshold > 0 && micros >= threshold * 1000L) {
+            this.logSlow(session, micros);
+        }
+    }
+
+    private void logSlow(GameSession session, long micros) {
+        long now = System.currentTimeMillis();
+        long next = this.nextSlowLog.get();
+        if (now < next || !this.nextSlowLog.compareAndSet(next, now + SLOW_LOG_INTERVAL)) {
+            this.suppressedSlowLogs.increment();
+            return;
+        }
+
+        var player = session.getPlayer();
+        long suppressed = this.suppressedSlowLogs.sumThenReset();
+        Grasscutter.getLogger().warn("Packet handler {} took {} ms for player {}{}.",
+            this.getOpcodeName(), micros / 1000, player != null ? player.getUid() : 0,
+            suppressed > 0 ? " (" + suppressed + " more slow runs since the last report)" : "");
+    }
+}
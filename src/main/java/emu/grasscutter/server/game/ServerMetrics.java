@@ -0,0 +1,65 @@
+package emu.grasscutter.server.game;
+
+import emu.grasscutter.game.world.Scene;
+import emu.grasscutter.game.world.World;
+import emu.grasscutter.utils.LatencyHistogram;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntMaps;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+import static emu.grasscutter.config.Configuration.*;
+
+/**
+ * Statistics collected by the game loop, so the metrics endpoint never has to touch game state.
+ */
+public final class ServerMetrics {
+    private static final LatencyHistogram tickDurations = new LatencyHistogram();
+    private static volatile WorldSnapshot worldSnapshot = new WorldSnapshot(0, 0, Int2IntMaps.EMPTY_MAP);
+
+    private ServerMetrics() {}
+
+    /**
+     * @return Durations of {@link GameServer#onTick()}.
+     */
+    public static LatencyHistogram getTickDurations() {
+        return tickDurations;
+    }
+
+    /**
+     * @return Worlds, scenes and entities as of the last tick.
+     */
+    public static WorldSnapshot getWorldSnapshot() {
+        return worldSnapshot;
+    }
+
+    /**
+     * Called by the game loop at the end of every tick.
+     * @param server The game server.
+     * @param tickMicros How long the tick took.
+     */
+    static void onTick(GameServer server, long tickMicros) {
+        tickDurations.record(tickMicros);
+        if (!HTTP_INFO.enableMetrics) return;
+
+        int worlds = 0;
+        int scenes = 0;
+        Int2IntMap entitiesByScene = new Int2IntOpenHashMap();
+        synchronized (server.getWorlds()) {
+            for (World world : server.getWorlds()) {
+                worlds++;
+                synchronized (world.getScenes()) {
+                    for (Scene scene : world.getScenes().values()) {
+                        scenes++;
+                        entitiesByScene.mergeInt(scene.getId(), scene.getEntities().size(), Integer::sum);
+                    }
+                }
+            }
+        }
+        worldSnapshot = new WorldSnapshot(worlds, scenes, Int2IntMaps.unmodifiable(entitiesByScene));
+    }
+
+    /**
+     * @param entitiesByScene Entities by scene id, summed over all worlds.
+     */
+    public record WorldSnapshot(int worlds, int scenes, Int2IntMap entitiesByScene) {}
+}
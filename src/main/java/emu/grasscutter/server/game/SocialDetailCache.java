@@ -0,0 +1,96 @@
+package emu.grasscutter.server.game;
+
+import emu.grasscutter.database.DatabaseHelper;
+import emu.grasscutter.game.player.Player;
+import emu.grasscutter.net.proto.SocialDetailOuterClass.SocialDetail;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static emu.grasscutter.config.Configuration.GAME_INFO;
+
+/**
+ * Read-through cache of {@link SocialDetail}s for players that are not online.
+ * Entries expire after a configurable time and are dropped whenever the player is saved.
+ */
+public final class SocialDetailCache {
+    private final Map<Integer, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public SocialDetailCache() {
+        int maxSize = GAME_INFO.socialDetailCacheSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return this.size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the social detail of an offline player, loading it from the database if needed.
+     * @param uid The player's UID.
+     * @return The social detail, or null if the player does not exist.
+     */
+    public SocialDetail.Builder get(int uid) {
+        long now = System.currentTimeMillis();
+
+        synchronized (this.entries) {
+            Entry entry = this.entries.get(uid);
+            if (entry != null && entry.expiresAt > now) {
+                this.hits.incrementAndGet();
+                return entry.detail.toBuilder();
+            }
+        }
+
+        this.misses.incrementAndGet();
+        Player player = DatabaseHelper.getPlayerByUid(uid);
+        if (player == null) {
+            return null;
+        }
+
+        SocialDetail detail = player.getSocialDetail().build();
+        synchronized (this.entries) {
+            this.entries.put(uid, new Entry(detail, now + GAME_INFO.socialDetailCacheTtl * 1000L));
+        }
+        return detail.toBuilder();
+    }
+
+    public void invalidate(int uid) {
+        synchronized (this.entries) {
+            this.entries.remove(uid);
+        }
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public double getHitRate() {
+        long hits = this.getHits();
+        long total = hits + this.getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    private static class Entry {
+        private final SocialDetail detail;
+        private final long expiresAt;
+
+        private Entry(SocialDetail detail, long expiresAt) {
+            this.detail = detail;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -30,6 +30,8 @@ import static emu.grasscutter.net.proto.QueryRegionListHttpRspOuterClass.QueryRe
  */
 public final class RegionHandler implements Router {
     private static final Map<String, RegionData> regions = new ConcurrentHashMap<>();
+    private static final Map<String, EncryptedRegionData> encryptedRegions = new ConcurrentHashMap<>();
+    private static final Pattern VERSION_LETTERS = Pattern.compile("[a-zA-Z]");
     private static String regionListResponse;
 
     public RegionHandler() {
@@ -133,7 +135,7 @@ public final class RegionHandler implements Router {
                 regionData = region.getBase64();
         }
 
-        String[] versionCode = versionName.replaceAll(Pattern.compile("[a-zA-Z]").pattern(), "").split("\\.");
+        String[] versionCode = VERSION_LETTERS.matcher(versionName).replaceAll("").split("\\.");
         int versionMajor = Integer.parseInt(versionCode[0]);
         int versionMinor = Integer.parseInt(versionCode[1]);
         int versionFix   = Integer.parseInt(versionCode[2]);
@@ -158,32 +160,13 @@ public final class RegionHandler implements Router {
                 if (key_id == null)
                     throw new Exception("Key ID was not set");
 
-                Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
-                cipher.init(Cipher.ENCRYPT_MODE, Crypto.EncryptionKeys.get(Integer.valueOf(key_id)));
-                var regionInfo = Utils.base64Decode(event.getRegionInfo());
-
-                //Encrypt regionInfo in chunks
-                ByteArrayOutputStream encryptedRegionInfoStream = new ByteArrayOutputStream();
-
-                //Thank you so much GH Copilot
-                int chunkSize = 256 - 11;
-                int regionInfoLength = regionInfo.length;
-                int numChunks = (int) Math.ceil(regionInfoLength / (double) chunkSize);
-
-                for (int i = 0; i < numChunks; i++) {
-                    byte[] chunk = Arrays.copyOfRange(regionInfo, i * chunkSize, Math.min((i + 1) * chunkSize, regionInfoLength));
-                    byte[] encryptedChunk = cipher.doFinal(chunk);
-                    encryptedRegionInfoStream.write(encryptedChunk);
-                }
-
-                Signature privateSignature = Signature.getInstance("SHA256withRSA");
-                privateSignature.initSign(Crypto.CUR_SIGNING_KEY);
-                privateSignature.update(regionInfo);
+                // Unknown region names come straight from the client, so they are never cached
+                var encrypted = getEncryptedRegion(region != null ? regionName : null, Integer.parseInt(key_id), event.getRegionInfo());
 
                 var rsp = new QueryCurRegionRspJson();
 
-                rsp.content = Utils.base64Encode(encryptedRegionInfoStream.toByteArray());
-                rsp.sign = Utils.base64Encode(privateSignature.sign());
+                rsp.content = encrypted.getContent();
+                rsp.sign = encrypted.getSign();
 
                 ctx.json(rsp);
             }
@@ -201,6 +184,83 @@ public final class RegionHandler implements Router {
         Grasscutter.getLogger().info(String.format("Client %s request: query_cur_region/%s", ctx.ip(), regionName));
     }
 
+    /**
+     * Gets the encrypted and signed region info for a client key.
+     * The result is cached until the region info produced for this region changes.
+     * @param regionName A configured region, or null to skip the cache.
+     */
+    private static EncryptedRegionData getEncryptedRegion(String regionName, int keyId, String regionInfo) throws Exception {
+        String cacheKey = regionName != null ? regionName + "/" + keyId : null;
+        var cached = cacheKey != null ? encryptedRegions.get(cacheKey) : null;
+        if (cached != null && cached.getRegionInfo().equals(regionInfo)) {
+            return cached;
+        }
+
+        Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, Crypto.EncryptionKeys.get(keyId));
+        var regionInfoBytes = Utils.base64Decode(regionInfo);
+
+        //Encrypt regionInfo in chunks
+        ByteArrayOutputStream encryptedRegionInfoStream = new ByteArrayOutputStream();
+
+        //Thank you so much GH Copilot
+        int chunkSize = 256 - 11;
+        int regionInfoLength = regionInfoBytes.length;
+        int numChunks = (int) Math.ceil(regionInfoLength / (double) chunkSize);
+
+        for (int i = 0; i < numChunks; i++) {
+            byte[] chunk = Arrays.copyOfRange(regionInfoBytes, i * chunkSize, Math.min((i + 1) * chunkSize, regionInfoLength));
+            byte[] encryptedChunk = cipher.doFinal(chunk);
+            encryptedRegionInfoStream.write(encryptedChunk);
+        }
+
+        Signature privateSignature = Signature.getInstance("SHA256withRSA");
+        privateSignature.initSign(Crypto.CUR_SIGNING_KEY);
+        privateSignature.update(regionInfoBytes);
+
+        var encrypted = new EncryptedRegionData(regionInfo,
+                Utils.base64Encode(encryptedRegionInfoStream.toByteArray()),
+                Utils.base64Encode(privateSignature.sign()));
+        if (cacheKey != null) {
+            encryptedRegions.put(cacheKey, encrypted);
+        }
+        return encrypted;
+    }
+
+    /**
+     * Clears cached encrypted region info. Called when the configuration is reloaded.
+     */
+    public static void clearEncryptedRegions() {
+        encryptedRegions.clear();
+    }
+
+    /**
+     * Encrypted region info container.
+     */
+    private static class EncryptedRegionData {
+        private final String regionInfo;
+        private final String content;
+        private final String sign;
+
+        public EncryptedRegionData(String regionInfo, String content, String sign) {
+            this.regionInfo = regionInfo;
+            this.content = content;
+            this.sign = sign;
+        }
+
+        public String getRegionInfo() {
+            return this.regionInfo;
+        }
+
+        public String getContent() {
+            return this.content;
+        }
+
+        public String getSign() {
+            return this.sign;
+        }
+    }
+
     /**
      * Region data container.
      */
@@ -4,6 +4,7 @@ import emu.grasscutter.Grasscutter;
 import emu.grasscutter.database.DatabaseHelper;
 import emu.grasscutter.game.Account;
 import emu.grasscutter.game.gacha.GachaBanner;
+import emu.grasscutter.game.gacha.GachaRecord;
 import emu.grasscutter.game.gacha.GachaSystem;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.server.http.Router;
@@ -21,7 +22,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static emu.grasscutter.utils.Language.translate;
 
@@ -33,6 +37,12 @@ public final class GachaHandler implements Router {
     @Deprecated(forRemoval = true)
     public static final String gachaMappings = gachaMappingsPath.toString();
 
+    private static final int RECORDS_PAGE_SIZE = 10;
+    private static final long SESSION_CACHE_TTL = 60 * 1000;
+    private static final int SESSION_CACHE_MAX_SIZE = 1024;
+    // Session key -> account id, so paging through records does not query the account every time.
+    private static final Map<String, CachedSession> sessionCache = new ConcurrentHashMap<>();
+
     @Override public void applyRoutes(Javalin javalin) {
         javalin.get("/gacha", GachaHandler::gachaRecords);
         javalin.get("/gacha/details", GachaHandler::gachaDetails);
@@ -40,18 +50,40 @@ public final class GachaHandler implements Router {
         javalin._conf.addSinglePageRoot("/gacha/mappings", gachaMappingsPath.toString(), Location.EXTERNAL);  // TODO: This ***must*** be changed to take the Path not a String. This might involve upgrading Javalin.
     }
 
-    private static void gachaRecords(Context ctx) {
-        String sessionKey = ctx.queryParam("s");
-        Account account = DatabaseHelper.getAccountBySessionKey(sessionKey);
-        if (account == null) {
-            ctx.status(403).result("Requested account was not found");
-            return;
+    /**
+     * Gets the online player owning a session key.
+     * @return The player, or null if the key is unknown or the player is offline.
+     */
+    private static Player getPlayerBySessionKey(String sessionKey) {
+        if (sessionKey == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        CachedSession cached = sessionCache.get(sessionKey);
+        if (cached == null || cached.expiresAt < now) {
+            Account account = DatabaseHelper.getAccountBySessionKey(sessionKey);
+            if (account == null) {
+                return null;
+            }
+
+            if (sessionCache.size() >= SESSION_CACHE_MAX_SIZE) {
+                sessionCache.values().removeIf(session -> session.expiresAt < now);
+            }
+            cached = new CachedSession(account.getId(), now + SESSION_CACHE_TTL);
+            sessionCache.put(sessionKey, cached);
         }
-        Player player = Grasscutter.getGameServer().getPlayerByAccountId(account.getId());
+
+        return Grasscutter.getGameServer().getPlayerByAccountId(cached.accountId);
+    }
+
+    private static void gachaRecords(Context ctx) {
+        Player player = getPlayerBySessionKey(ctx.queryParam("s"));
         if (player == null) {
             ctx.status(403).result("No player associated with requested account");
             return;
         }
+        Account account = player.getAccount();
 
         int page = 0, gachaType = 0;
         if (ctx.queryParam("p") != null)
@@ -59,12 +91,30 @@ public final class GachaHandler implements Router {
         if (ctx.queryParam("gachaType") != null)
             gachaType = Integer.parseInt(ctx.queryParam("gachaType"));
 
-        String records = DatabaseHelper.getGachaRecords(player.getUid(), page, gachaType).toString();
-        long maxPage = DatabaseHelper.getGachaRecordsMaxPage(player.getUid(), page, gachaType);
+        // Pages are found by seeking from the edge of the neighbouring page.
+        // Plain page numbers are still supported for older records.html templates.
+        GachaRecord before = GachaRecord.fromCursor(ctx.queryParam("before"));
+        GachaRecord after = GachaRecord.fromCursor(ctx.queryParam("after"));
+        List<GachaRecord> records;
+        if (after != null) {
+            records = DatabaseHelper.getGachaRecordsAfter(player.getUid(), gachaType, after, RECORDS_PAGE_SIZE);
+        } else if (before != null || page == 0) {
+            records = DatabaseHelper.getGachaRecordsBefore(player.getUid(), gachaType, before, RECORDS_PAGE_SIZE);
+        } else {
+            records = DatabaseHelper.getGachaRecords(player.getUid(), page, gachaType, RECORDS_PAGE_SIZE);
+        }
+
+        long count = player.getGachaInfo().getRecordCount(player.getUid(), gachaType);
+        long maxPage = count / RECORDS_PAGE_SIZE + (count % RECORDS_PAGE_SIZE > 0 ? 1 : 0);
+
+        String prevCursor = records.isEmpty() ? "" : records.get(0).toCursor();
+        String nextCursor = records.isEmpty() ? "" : records.get(records.size() - 1).toCursor();
 
         String template = new String(FileUtils.read(FileUtils.getDataPath("gacha/records.html")), StandardCharsets.UTF_8)
-            .replace("{{REPLACE_RECORDS}}", records)
+            .replace("{{REPLACE_RECORDS}}", records.toString())
             .replace("{{REPLACE_MAXPAGE}}", String.valueOf(maxPage))
+            .replace("{{REPLACE_PREV_CURSOR}}", prevCursor)
+            .replace("{{REPLACE_NEXT_CURSOR}}", nextCursor)
             .replace("{{TITLE}}", translate(player, "gacha.records.title"))
             .replace("{{DATE}}", translate(player, "gacha.records.date"))
             .replace("{{ITEM}}", translate(player, "gacha.records.item"))
@@ -75,17 +125,12 @@ public final class GachaHandler implements Router {
 
     private static void gachaDetails(Context ctx) {
         Path detailsTemplate = FileUtils.getDataPath("gacha/details.html");
-        String sessionKey = ctx.queryParam("s");
-        Account account = DatabaseHelper.getAccountBySessionKey(sessionKey);
-        if (account == null) {
-            ctx.status(403).result("Requested account was not found");
-            return;
-        }
-        Player player = Grasscutter.getGameServer().getPlayerByAccountId(account.getId());
+        Player player = getPlayerBySessionKey(ctx.queryParam("s"));
         if (player == null) {
             ctx.status(403).result("No player associated with requested account");
             return;
         }
+        Account account = player.getAccount();
 
         String template;
         try {
@@ -135,4 +180,14 @@ public final class GachaHandler implements Router {
         ctx.contentType(ContentType.TEXT_HTML);
         ctx.result(template);
     }
+
+    private static class CachedSession {
+        private final String accountId;
+        private final long expiresAt;
+
+        private CachedSession(String accountId, long expiresAt) {
+            this.accountId = accountId;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
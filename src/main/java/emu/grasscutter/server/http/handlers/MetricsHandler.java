@@ -0,0 +1,212 @@
+package emu.grasscutter.server.http.handlers;
+
+import emu.grasscutter.Grasscutter;
+import emu.grasscutter.database.DatabaseManager;
+import emu.grasscutter.database.DatabaseMetrics;
+import emu.grasscutter.game.chat.ChatSystem;
+import emu.grasscutter.game.player.LoginPacketCache;
+import emu.grasscutter.game.world.World;
+import emu.grasscutter.scripts.SceneScriptManager;
+import emu.grasscutter.server.game.GameServer;
+import emu.grasscutter.server.game.GameSession;
+import emu.grasscutter.server.game.GameSessionManager;
+import emu.grasscutter.server.game.ServerMetrics;
+import emu.grasscutter.server.http.Router;
+import emu.grasscutter.utils.AsyncLogAppender;
+import emu.grasscutter.utils.LatencyHistogram;
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.LongStream;
+
+/**
+ * Serves server metrics in the Prometheus text exposition format on /metrics.
+ * Everything is read from counters and snapshots taken by the game loop, so a scrape never blocks it.
+ */
+public final class MetricsHandler implements Router {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    /* Histogram bucket bounds in microseconds, powers of two from 32 us to 33 s, which are LatencyHistogram bucket boundaries. */
+    private static final long[] BUCKET_BOUNDS = LongStream.rangeClosed(5, 25).map(exponent -> 1L << exponent).toArray();
+
+    @Override public void applyRoutes(Javalin javalin) {
+        javalin.get("/metrics", MetricsHandler::handle);
+    }
+
+    private static void handle(Context ctx) {
+        var out = new StringBuilder(4096);
+        GameServer server = Grasscutter.getGameServer();
+        if (server != null) {
+            writeGame(out, server);
+        }
+        writeDatabase(out, DatabaseManager.getGameMetrics(), DatabaseManager.getDispatchMetrics());
+        counter(out, "grasscutter_log_events_dropped_total", "Log events dropped from the full log queue.", AsyncLogAppender.getDroppedEvents());
+        writeJvm(out);
+
+        ctx.contentType("text/plain; version=0.0.4; charset=utf-8");
+        ctx.result(out.toString());
+    }
+
+    private static void writeGame(StringBuilder out, GameServer server) {
+        var worlds = ServerMetrics.getWorldSnapshot();
+        gauge(out, "grasscutter_players_online", "Players online.", server.getPlayers().size());
+        gauge(out, "grasscutter_worlds", "Loaded worlds.", worlds.worlds());
+        gauge(out, "grasscutter_scenes", "Loaded scenes.", worlds.scenes());
+
+        header(out, "grasscutter_scene_entities", "Entities by scene id, summed over all worlds.", "gauge");
+        worlds.entitiesByScene().int2IntEntrySet().forEach(entry ->
+            sample(out, "grasscutter_scene_entities", "scene_id", String.valueOf(entry.getIntKey()), entry.getIntValue()));
+
+        header(out, "grasscutter_tick_duration_seconds", "Duration of game server ticks.", "histogram");
+        histogram(out, "grasscutter_tick_duration_seconds", ServerMetrics.getTickDurations());
+
+        var handlerStats = server.getPacketHandler().getHandlerStats().values().stream()
+            .filter(stats -> stats.getReceived() > 0)
+            .toList();
+        header(out, "grasscutter_packets_received_total", "Packets received by opcode.", "counter");
+        handlerStats.forEach(stats ->
+            sample(out, "grasscutter_packets_received_total", "opcode", stats.getOpcodeName(), stats.getReceived()));
+        header(out, "grasscutter_packet_handler_seconds", "Run time of packet handlers by opcode.", "histogram");
+        handlerStats.forEach(stats ->
+            histogram(out, "grasscutter_packet_handler_seconds", stats.getLatency(), "opcode", stats.getOpcodeName()));
+        counter(out, "grasscutter_packets_unhandled_total", "Packets received without a handler.", server.getPacketHandler().getUnhandledPackets());
+
+        int[] rtts = GameSessionManager.getSessions().stream()
+            .mapToInt(GameSession::getSrtt)
+            .filter(rtt -> rtt >= 0)
+            .sorted()
+            .toArray();
+        gauge(out, "grasscutter_kcp_sessions", "Connected KCP sessions.", rtts.length);
+        header(out, "grasscutter_kcp_rtt_seconds", "Smoothed round trip time of connected KCP sessions.", "gauge");
+        if (rtts.length > 0) {
+            for (double quantile : QUANTILES) {
+                int rtt = rtts[Math.min((int) Math.ceil(quantile * rtts.length) - 1, rtts.length - 1)];
+                sample(out, "grasscutter_kcp_rtt_seconds", "quantile", String.valueOf(quantile), rtt / 1000d);
+            }
+            sample(out, "grasscutter_kcp_rtt_seconds", "quantile", "1.0", rtts[rtts.length - 1] / 1000d);
+        }
+
+        gauge(out, "grasscutter_script_event_queue", "Script events waiting for an executor thread.", SceneScriptManager.getEventQueueSize());
+
+        counter(out, "grasscutter_login_cache_hits_total", "Login packet parts served from the cache.", LoginPacketCache.getHits());
+        counter(out, "grasscutter_login_cache_misses_total", "Login packet parts that had to be built.", LoginPacketCache.getMisses());
+        gauge(out, "grasscutter_login_cache_players", "Players with cached login packets.", LoginPacketCache.getCachedPlayers());
+        counter(out, "grasscutter_scene_warm_hits_total", "Players entering a scene that was kept warm.", World.getWarmSceneHits());
+        counter(out, "grasscutter_scene_cold_creates_total", "Scenes created from scratch.", World.getColdSceneCreates());
+        counter(out, "grasscutter_scene_evictions_total", "Warm scenes evicted after their grace period.", World.getSceneEvictions());
+        counter(out, "grasscutter_social_cache_hits_total", "Social details of offline players served from the cache.", server.getSocialDetailCache().getHits());
+        counter(out, "grasscutter_social_cache_misses_total", "Social details of offline players loaded from the database.", server.getSocialDetailCache().getMisses());
+        gauge(out, "grasscutter_chat_messages", "Chat messages held in memory.", ChatSystem.getStoredMessages());
+        counter(out, "grasscutter_chat_messages_dropped_total", "Chat messages dropped from full conversations.", ChatSystem.getDroppedMessages());
+    }
+
+    private static void writeDatabase(StringBuilder out, DatabaseMetrics... datastores) {
+        var stores = Arrays.stream(datastores).filter(Objects::nonNull).toList();
+        if (stores.isEmpty()) return;
+
+        header(out, "grasscutter_mongo_connections_open", "Open MongoDB connections.", "gauge");
+        stores.forEach(store -> sample(out, "grasscutter_mongo_connections_open", "datastore", store.getName(), store.getOpenConnections()));
+        header(out, "grasscutter_mongo_connections_checked_out", "MongoDB connections in use.", "gauge");
+        stores.forEach(store -> sample(out, "grasscutter_mongo_connections_checked_out", "datastore", store.getName(), store.getCheckedOutConnections()));
+        header(out, "grasscutter_mongo_checkout_failures_total", "Failed MongoDB connection check outs.", "counter");
+        stores.forEach(store -> sample(out, "grasscutter_mongo_checkout_failures_total", "datastore", store.getName(), store.getCheckOutFailures()));
+
+        header(out, "grasscutter_mongo_commands_total", "MongoDB commands by name.", "counter");
+        stores.forEach(store -> store.getCommands().forEach((command, stats) ->
+            sample(out, "grasscutter_mongo_commands_total", labels("datastore", store.getName(), "command", command), stats.getCount())));
+        header(out, "grasscutter_mongo_command_failures_total", "Failed MongoDB commands by name.", "counter");
+        stores.forEach(store -> store.getCommands().forEach((command, stats) ->
+            sample(out, "grasscutter_mongo_command_failures_total", labels("datastore", store.getName(), "command", command), stats.getFailures())));
+        header(out, "grasscutter_mongo_command_seconds_total", "Time spent in MongoDB commands by name.", "counter");
+        stores.forEach(store -> store.getCommands().forEach((command, stats) ->
+            sample(out, "grasscutter_mongo_command_seconds_total", labels("datastore", store.getName(), "command", command), stats.getTotalMicros() / 1e6)));
+    }
+
+    private static void writeJvm(StringBuilder out) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        gauge(out, "jvm_memory_heap_used_bytes", "Used heap memory.", heap.getUsed());
+        gauge(out, "jvm_memory_heap_committed_bytes", "Committed heap memory.", heap.getCommitted());
+        gauge(out, "jvm_memory_heap_max_bytes", "Maximum heap memory, -1 if undefined.", heap.getMax());
+        gauge(out, "jvm_threads_live", "Live threads.", ManagementFactory.getThreadMXBean().getThreadCount());
+
+        var collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        header(out, "jvm_gc_collections_total", "Garbage collections by collector.", "counter");
+        for (GarbageCollectorMXBean gc : collectors) {
+            sample(out, "jvm_gc_collections_total", "gc", gc.getName(), gc.getCollectionCount());
+        }
+        header(out, "jvm_gc_collection_seconds_total", "Time spent in garbage collections by collector.", "counter");
+        for (GarbageCollectorMXBean gc : collectors) {
+            sample(out, "jvm_gc_collection_seconds_total", "gc", gc.getName(), gc.getCollectionTime() / 1000d);
+        }
+    }
+
+    /* Exposition format. */
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        header(out, name, help, "gauge");
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, double value) {
+        header(out, name, help, "counter");
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    /**
+     * Writes the samples of a histogram, the header has to be written first.
+     * @param labelPairs Label names and values of the histogram.
+     */
+    private static void histogram(StringBuilder out, String name, LatencyHistogram histogram, String... labelPairs) {
+        long[] counts = histogram.getCumulativeCounts(BUCKET_BOUNDS);
+        String[] pairs = Arrays.copyOf(labelPairs, labelPairs.length + 2);
+        pairs[labelPairs.length] = "le";
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            pairs[labelPairs.length + 1] = format(BUCKET_BOUNDS[i] / 1e6);
+            sample(out, name + "_bucket", labels(pairs), counts[i]);
+        }
+        pairs[labelPairs.length + 1] = "+Inf";
+        sample(out, name + "_bucket", labels(pairs), counts[BUCKET_BOUNDS.length]);
+
+        String labels = labels(labelPairs);
+        out.append(name).append("_sum");
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(format(histogram.getTotalMicros() / 1e6)).append('\n');
+        out.append(name).append("_count");
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(counts[BUCKET_BOUNDS.length]).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String label, String value, double sample) {
+        sample(out, name, labels(label, value), sample);
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double sample) {
+        out.append(name).append('{').append(labels).append("} ").append(format(sample)).append('\n');
+    }
+
+    private static String labels(String... pairs) {
+        var labels = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) labels.append(',');
+            labels.append(pairs[i]).append("=\"").append(escape(pairs[i + 1])).append('"');
+        }
+        return labels.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
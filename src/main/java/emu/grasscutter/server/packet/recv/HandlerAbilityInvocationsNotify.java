@@ -1,11 +1,14 @@
 package emu.grasscutter.server.packet.recv;
 
+import com.google.protobuf.ByteString;
+
 import emu.grasscutter.game.entity.EntityBaseGadget;
 import emu.grasscutter.game.entity.GameEntity;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.world.Scene;
 import emu.grasscutter.net.packet.Opcodes;
 import emu.grasscutter.net.packet.PacketOpcodes;
+import emu.grasscutter.net.packet.RepeatedFieldBytes;
 import emu.grasscutter.net.proto.AbilityInvocationsNotifyOuterClass.AbilityInvocationsNotify;
 import emu.grasscutter.net.proto.AbilityInvokeEntryOuterClass.AbilityInvokeEntry;
 import emu.grasscutter.net.packet.PacketHandler;
@@ -22,12 +25,12 @@ public class HandlerAbilityInvocationsNotify extends PacketHandler {
 	
 	@Override
 	public void handle(GameSession session, byte[] header, byte[] payload) throws Exception {
-		AbilityInvocationsNotify notif = AbilityInvocationsNotify.parseFrom(payload);
-
 		Player player = session.getPlayer();
-		for (AbilityInvokeEntry entry : notif.getInvokesList()) {
+		// The wire bytes of each entry are kept, so the entries are forwarded without serializing them again
+		for (ByteString raw : RepeatedFieldBytes.read(payload, AbilityInvocationsNotify.INVOKES_FIELD_NUMBER)) {
+			AbilityInvokeEntry entry = AbilityInvokeEntry.parseFrom(raw);
 			player.getAbilityManager().onAbilityInvoke(entry);
-			player.getAbilityInvokeHandler().addEntry(entry.getForwardType(), entry);
+			player.getAbilityInvokeHandler().addEntry(entry.getForwardType(), entry, raw);
 		}
 	}
 
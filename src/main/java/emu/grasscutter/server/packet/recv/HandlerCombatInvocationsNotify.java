@@ -1,11 +1,15 @@
 package emu.grasscutter.server.packet.recv;
 
+import com.google.protobuf.ByteString;
+
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.game.entity.GameEntity;
 import emu.grasscutter.game.player.Player;
+import emu.grasscutter.game.player.PlayerLandingState;
 import emu.grasscutter.game.props.FightProperty;
 import emu.grasscutter.net.packet.Opcodes;
 import emu.grasscutter.net.packet.PacketOpcodes;
+import emu.grasscutter.net.packet.RepeatedFieldBytes;
 import emu.grasscutter.net.proto.AttackResultOuterClass.AttackResult;
 import emu.grasscutter.net.proto.CombatInvocationsNotifyOuterClass.CombatInvocationsNotify;
 import emu.grasscutter.net.proto.CombatInvokeEntryOuterClass.CombatInvokeEntry;
@@ -23,15 +27,11 @@ import emu.grasscutter.utils.Position;
 
 @Opcodes(PacketOpcodes.CombatInvocationsNotify)
 public class HandlerCombatInvocationsNotify extends PacketHandler {
-
-    private float cachedLandingSpeed = 0;
-    private long cachedLandingTimeMillisecond = 0;
-    private boolean monitorLandingEvent = false;
-
     @Override
     public void handle(GameSession session, byte[] header, byte[] payload) throws Exception {
-        CombatInvocationsNotify notif = CombatInvocationsNotify.parseFrom(payload);
-        for (CombatInvokeEntry entry : notif.getInvokeListList()) {
+        // The wire bytes of each entry are kept, so unchanged entries are forwarded without serializing them again
+        for (ByteString raw : RepeatedFieldBytes.read(payload, CombatInvocationsNotify.INVOKE_LIST_FIELD_NUMBER)) {
+            CombatInvokeEntry entry = CombatInvokeEntry.parseFrom(raw);
             // Handle combat invoke
             switch (entry.getArgumentType()) {
                 case COMBAT_TYPE_ARGUMENT_EVT_BEING_HIT -> {
@@ -58,13 +58,17 @@ public class HandlerCombatInvocationsNotify extends PacketHandler {
                         MotionInfo motionInfo = moveInfo.getMotionInfo();
                         MotionState motionState = motionInfo.getState();
 
-                        // Call entity move event.
-                        EntityMoveEvent event = new EntityMoveEvent(
-                            entity, new Position(motionInfo.getPos()),
-                            new Position(motionInfo.getRot()), motionState);
-                        event.call();
+                        // Call entity move event, only if a plugin listens to it.
+                        if (Grasscutter.getPluginManager().hasListeners(EntityMoveEvent.class)) {
+                            EntityMoveEvent event = new EntityMoveEvent(
+                                entity, new Position(motionInfo.getPos()),
+                                new Position(motionInfo.getRot()), motionState);
+                            event.call();
 
-                        entity.move(event.getPosition(), event.getRotation());
+                            entity.move(event.getPosition(), event.getRotation());
+                        } else {
+                            entity.move(motionInfo.getPos(), motionInfo.getRot());
+                        }
                         entity.setLastMoveSceneTimeMs(moveInfo.getSceneTime());
                         entity.setLastMoveReliableSeq(moveInfo.getReliableSeq());
                         entity.setMotionState(motionState);
@@ -77,16 +81,12 @@ public class HandlerCombatInvocationsNotify extends PacketHandler {
 
                         // MOTION_LAND_SPEED and MOTION_FALL_ON_GROUND arrive in different packets.
                         // Cache land speed for later use.
+                        PlayerLandingState landing = session.getPlayer().getLandingState();
                         if (motionState == MotionState.MOTION_STATE_LAND_SPEED) {
-                            cachedLandingSpeed = motionInfo.getSpeed().getY();
-                            cachedLandingTimeMillisecond = System.currentTimeMillis();
-                            monitorLandingEvent = true;
+                            landing.onLandSpeed(motionInfo.getSpeed().getY());
                         }
-                        if (monitorLandingEvent) {
-                            if (motionState == MotionState.MOTION_STATE_FALL_ON_GROUND) {
-                                monitorLandingEvent = false;
-                                handleFallOnGround(session, entity, motionState);
-                            }
+                        if (motionState == MotionState.MOTION_STATE_FALL_ON_GROUND && landing.consumeFallOnGround()) {
+                            handleFallOnGround(session, entity, landing);
                         }
 
                         // MOTION_STATE_NOTIFY = Dont send to other players
@@ -100,17 +100,18 @@ public class HandlerCombatInvocationsNotify extends PacketHandler {
                     if (paramInfo.getIsServerCache()) {
                         paramInfo = paramInfo.toBuilder().setIsServerCache(false).build();
                         entry = entry.toBuilder().setCombatData(paramInfo.toByteString()).build();
+                        raw = null;
                     }
                 }
                 default -> {
                 }
             }
 
-            session.getPlayer().getCombatInvokeHandler().addEntry(entry.getForwardType(), entry);
+            session.getPlayer().getCombatInvokeHandler().addEntry(entry.getForwardType(), entry, raw);
         }
     }
 
-    private void handleFallOnGround(GameSession session, GameEntity entity, MotionState motionState) {
+    private void handleFallOnGround(GameSession session, GameEntity entity, PlayerLandingState landing) {
         if (session.getPlayer().inGodmode()) {
             return;
         }
@@ -119,24 +120,25 @@ public class HandlerCombatInvocationsNotify extends PacketHandler {
         // A dirty patch: if not received immediately after MOTION_LAND_SPEED, discard this packet.
         // 200ms seems to be a reasonable delay.
         int maxDelay = 200;
-        long actualDelay = System.currentTimeMillis() - cachedLandingTimeMillisecond;
+        long actualDelay = System.currentTimeMillis() - landing.getLandingTimeMillis();
         Grasscutter.getLogger().trace("MOTION_FALL_ON_GROUND received after " + actualDelay + "/" + maxDelay + "ms." + (actualDelay > maxDelay ? " Discard" : ""));
         if (actualDelay > maxDelay) {
             return;
         }
         float currentHP = entity.getFightProperty(FightProperty.FIGHT_PROP_CUR_HP);
         float maxHP = entity.getFightProperty(FightProperty.FIGHT_PROP_MAX_HP);
+        float landingSpeed = landing.getLandingSpeed();
         float damageFactor = 0;
-        if (cachedLandingSpeed < -23.5) {
+        if (landingSpeed < -23.5) {
             damageFactor = 0.33f;
         }
-        if (cachedLandingSpeed < -25) {
+        if (landingSpeed < -25) {
             damageFactor = 0.5f;
         }
-        if (cachedLandingSpeed < -26.5) {
+        if (landingSpeed < -26.5) {
             damageFactor = 0.66f;
         }
-        if (cachedLandingSpeed < -28) {
+        if (landingSpeed < -28) {
             damageFactor = 1f;
         }
         float damage = maxHP * damageFactor;
@@ -145,7 +147,7 @@ public class HandlerCombatInvocationsNotify extends PacketHandler {
             newHP = 0;
         }
         if (damageFactor > 0) {
-            Grasscutter.getLogger().debug(currentHP + "/" + maxHP + "\tLandingSpeed: " + cachedLandingSpeed +
+            Grasscutter.getLogger().debug(currentHP + "/" + maxHP + "\tLandingSpeed: " + landingSpeed +
                     "\tDamageFactor: " + damageFactor + "\tDamage: " + damage + "\tNewHP: " + newHP);
         } else {
             Grasscutter.getLogger().trace(currentHP + "/" + maxHP + "\tLandingSpeed: 0\tNo damage");
@@ -155,6 +157,6 @@ public class HandlerCombatInvocationsNotify extends PacketHandler {
         if (newHP == 0) {
             session.getPlayer().getStaminaManager().killAvatar(session, entity, PlayerDieTypeOuterClass.PlayerDieType.PLAYER_DIE_TYPE_FALL);
         }
-        cachedLandingSpeed = 0;
+        landing.reset();
     }
 }
@@ -7,33 +7,70 @@ import emu.grasscutter.game.player.Player;
 import emu.grasscutter.net.packet.Opcodes;
 import emu.grasscutter.net.packet.PacketOpcodes;
 import emu.grasscutter.net.proto.GetPlayerTokenReqOuterClass.GetPlayerTokenReq;
+import emu.grasscutter.net.proto.RetcodeOuterClass.Retcode;
 import emu.grasscutter.net.packet.PacketHandler;
 import emu.grasscutter.server.event.game.PlayerCreationEvent;
 import emu.grasscutter.server.game.GameSession;
 import emu.grasscutter.server.game.GameSession.SessionState;
+import emu.grasscutter.server.game.GameSessionManager;
 import emu.grasscutter.server.packet.send.PacketGetPlayerTokenRsp;
 import emu.grasscutter.utils.ByteHelper;
 import emu.grasscutter.utils.Crypto;
 import emu.grasscutter.utils.Utils;
+import io.netty.util.concurrent.DefaultThreadFactory;
 
 import javax.crypto.Cipher;
 
 import static emu.grasscutter.config.Configuration.ACCOUNT;
-import static emu.grasscutter.config.Configuration.GAME_OPTIONS;
+import static emu.grasscutter.config.Configuration.GAME_INFO;
 
 import java.nio.ByteBuffer;
 import java.security.Signature;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The token handshake is split into stages. Database lookups and RSA work run on
+ * {@link #handshakeExecutor}, everything touching server state runs on the logic thread.
+ */
 @Opcodes(PacketOpcodes.GetPlayerTokenReq)
 public class HandlerGetPlayerTokenReq extends PacketHandler {
+    public static final ExecutorService handshakeExecutor;
+    static {
+        handshakeExecutor = new ThreadPoolExecutor(GAME_INFO.handshakeThreads, GAME_INFO.handshakeThreads,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(GAME_INFO.handshakeQueueLimit),
+            new DefaultThreadFactory("handshake"), new ThreadPoolExecutor.AbortPolicy());
+    }
 
     @Override
     public void handle(GameSession session, byte[] header, byte[] payload) throws Exception {
         GetPlayerTokenReq req = GetPlayerTokenReq.parseFrom(payload);
 
-        // Authenticate
-        Account account = DatabaseHelper.getAccountById(req.getAccountUid());
-        if (account == null || !account.getToken().equals(req.getAccountToken())) {
+        // Ignore duplicate requests until this one has been processed
+        session.setState(SessionState.VERIFYING_TOKEN);
+
+        submit(session, () -> {
+            // Authenticate
+            Account account = DatabaseHelper.getAccountById(req.getAccountUid());
+            if (account == null || !account.getToken().equals(req.getAccountToken())) {
+                GameSessionManager.executeOnLogicThread(() -> {
+                    if (session.getState() == SessionState.VERIFYING_TOKEN) {
+                        session.setState(SessionState.WAITING_FOR_TOKEN);
+                    }
+                });
+                return;
+            }
+
+            GameSessionManager.executeOnLogicThread(() -> this.onAccountVerified(session, req, account));
+        });
+    }
+
+    private void onAccountVerified(GameSession session, GetPlayerTokenReq req, Account account) {
+        // Client disconnected while we were busy
+        if (session.getState() != SessionState.VERIFYING_TOKEN) {
             return;
         }
 
@@ -70,17 +107,44 @@ public class HandlerGetPlayerTokenReq extends PacketHandler {
         PlayerCreationEvent event = new PlayerCreationEvent(session, Player.class);
         event.call();
 
-        // Get player.
-        Player player = DatabaseHelper.getPlayerByAccount(account, event.getPlayerClass());
-
-        if (player == null) {
-            int nextPlayerUid = DatabaseHelper.getNextPlayerId(session.getAccount().getReservedPlayerUid());
-
-            // Create player instance from event.
-            player = event.getPlayerClass().getDeclaredConstructor(GameSession.class).newInstance(session);
+        submit(session, () -> {
+            try {
+                // Get player.
+                Player player = DatabaseHelper.getPlayerByAccount(account, event.getPlayerClass());
+
+                if (player == null) {
+                    int nextPlayerUid = DatabaseHelper.getNextPlayerId(account.getReservedPlayerUid());
+
+                    // Create player instance from event.
+                    player = event.getPlayerClass().getDeclaredConstructor(GameSession.class).newInstance(session);
+
+                    // Save to db
+                    DatabaseHelper.generatePlayerUid(player, nextPlayerUid);
+                }
+
+                // Load player from database, the heaviest part of the login, before it is handed back.
+                // Banned accounts only get a response and skip it.
+                if (!account.isBanned()) {
+                    player.setSession(session);
+                    player.setAccount(account);
+                    player.loadFromDatabase();
+                    session.getServer().getChatSystem().loadHistoryOnLogin(player);
+                }
+
+                Player loaded = player;
+                String[] seed = this.encryptSeed(req);
+                GameSessionManager.executeOnLogicThread(() -> this.onPlayerLoaded(session, loaded, seed));
+            } catch (Exception e) {
+                Grasscutter.getLogger().error("Failed to load player for account {}", account.getUsername(), e);
+                session.close();
+            }
+        });
+    }
 
-            // Save to db
-            DatabaseHelper.generatePlayerUid(player, nextPlayerUid);
+    private void onPlayerLoaded(GameSession session, Player player, String[] seed) {
+        if (session.getState() != SessionState.VERIFYING_TOKEN) {
+            session.getServer().getChatSystem().discardHistory(player);
+            return;
         }
 
         // Set player object for session
@@ -93,48 +157,68 @@ public class HandlerGetPlayerTokenReq extends PacketHandler {
             return;
         }
 
-        // Load player from database
-        player.loadFromDatabase();
-
         // Set session state
         session.setUseSecretKey(true);
         session.setState(SessionState.WAITING_FOR_LOGIN);
 
+        // Send packet
+        if (seed != null) {
+            session.send(new PacketGetPlayerTokenRsp(session, seed[0], seed[1]));
+        } else {
+            session.send(new PacketGetPlayerTokenRsp(session));
+        }
+    }
+
+    /**
+     * Builds the encrypted seed and its signature for the client.
+     * @return The encrypted seed and signature, or null if the client does not use key ids.
+     */
+    private String[] encryptSeed(GetPlayerTokenReq req) {
         // Only >= 2.7.50 has this
-        if (req.getKeyId() > 0) {
-            try {
-                Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
-                cipher.init(Cipher.DECRYPT_MODE, Crypto.CUR_SIGNING_KEY);
+        if (req.getKeyId() <= 0) {
+            return null;
+        }
 
-                var client_seed_encrypted = Utils.base64Decode(req.getClientSeed());
-                var client_seed = ByteBuffer.wrap(cipher.doFinal(client_seed_encrypted))
-                    .getLong();
+        try {
+            Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+            cipher.init(Cipher.DECRYPT_MODE, Crypto.CUR_SIGNING_KEY);
 
-                byte[] seed_bytes = ByteBuffer.wrap(new byte[8])
-                    .putLong(Crypto.ENCRYPT_SEED ^ client_seed)
-                    .array();
+            var client_seed_encrypted = Utils.base64Decode(req.getClientSeed());
+            var client_seed = ByteBuffer.wrap(cipher.doFinal(client_seed_encrypted))
+                .getLong();
 
-                cipher.init(Cipher.ENCRYPT_MODE, Crypto.EncryptionKeys.get(req.getKeyId()));
-                var seed_encrypted = cipher.doFinal(seed_bytes);
+            byte[] seed_bytes = ByteBuffer.wrap(new byte[8])
+                .putLong(Crypto.ENCRYPT_SEED ^ client_seed)
+                .array();
 
-                Signature privateSignature = Signature.getInstance("SHA256withRSA");
-                privateSignature.initSign(Crypto.CUR_SIGNING_KEY);
-                privateSignature.update(seed_bytes);
+            cipher.init(Cipher.ENCRYPT_MODE, Crypto.EncryptionKeys.get(req.getKeyId()));
+            var seed_encrypted = cipher.doFinal(seed_bytes);
 
-                session.send(new PacketGetPlayerTokenRsp(session, Utils.base64Encode(seed_encrypted), Utils.base64Encode(privateSignature.sign())));
-            } catch (Exception ignore) {
-                // Only UA Patch users will have exception
-                byte[] clientBytes = Utils.base64Decode(req.getClientSeed());
-                byte[] seed = ByteHelper.longToBytes(Crypto.ENCRYPT_SEED);
-                Crypto.xor(clientBytes, seed);
+            Signature privateSignature = Signature.getInstance("SHA256withRSA");
+            privateSignature.initSign(Crypto.CUR_SIGNING_KEY);
+            privateSignature.update(seed_bytes);
 
-                String base64str = Utils.base64Encode(clientBytes);
+            return new String[] {Utils.base64Encode(seed_encrypted), Utils.base64Encode(privateSignature.sign())};
+        } catch (Exception ignore) {
+            // Only UA Patch users will have exception
+            byte[] clientBytes = Utils.base64Decode(req.getClientSeed());
+            byte[] seed = ByteHelper.longToBytes(Crypto.ENCRYPT_SEED);
+            Crypto.xor(clientBytes, seed);
 
-                session.send(new PacketGetPlayerTokenRsp(session, base64str, "bm90aGluZyBoZXJl"));
-            }
-        } else {
-            // Send packet
-            session.send(new PacketGetPlayerTokenRsp(session));
+            return new String[] {Utils.base64Encode(clientBytes), "bm90aGluZyBoZXJl"};
+        }
+    }
+
+    /**
+     * Queues a handshake stage. If the queue is full, the client is told to try again later.
+     */
+    private static void submit(GameSession session, Runnable stage) {
+        try {
+            handshakeExecutor.execute(stage);
+        } catch (RejectedExecutionException e) {
+            Grasscutter.getLogger().warn("Handshake queue is full, asking {} to retry", session.getAddress());
+            session.setState(SessionState.WAITING_FOR_TOKEN);
+            session.send(new PacketGetPlayerTokenRsp(session, Retcode.RET_SYSTEM_BUSY_VALUE));
         }
     }
 }
@@ -17,9 +17,9 @@ public class HandlerHomeUpdateArrangementInfoReq extends PacketHandler {
 		var homeScene = session.getPlayer().getHome()
 				.getHomeSceneItem(session.getPlayer().getSceneId());
 
-		homeScene.update(req.getSceneArrangementInfo());
+		var changedBlocks = homeScene.update(req.getSceneArrangementInfo());
 
-		session.getPlayer().getHome().save();
+		session.getPlayer().getHome().saveArrangement(homeScene, changedBlocks);
 
 		session.send(new PacketHomeUpdateArrangementInfoRsp());
 	}
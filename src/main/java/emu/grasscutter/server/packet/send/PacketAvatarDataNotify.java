@@ -1,6 +1,12 @@
 package emu.grasscutter.server.packet.send;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.google.protobuf.CodedOutputStream;
+
 import emu.grasscutter.game.avatar.Avatar;
+import emu.grasscutter.game.player.LoginPacketCache;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.net.packet.BasePacket;
 import emu.grasscutter.net.packet.PacketOpcodes;
@@ -9,6 +15,13 @@ import emu.grasscutter.net.proto.AvatarDataNotifyOuterClass.AvatarDataNotify;
 public class PacketAvatarDataNotify extends BasePacket {
 
     public PacketAvatarDataNotify(Player player) {
+        this(player, null);
+    }
+
+    /**
+     * @param loginCache Reuses the serialized avatars from an earlier login, may be null.
+     */
+    public PacketAvatarDataNotify(Player player, LoginPacketCache loginCache) {
         super(PacketOpcodes.AvatarDataNotify, true);
 
         AvatarDataNotify.Builder proto = AvatarDataNotify.newBuilder()
@@ -17,7 +30,9 @@ public class PacketAvatarDataNotify extends BasePacket {
                 .addAllOwnedFlycloakList(player.getFlyCloakList())
                 .addAllOwnedCostumeList(player.getCostumeList());
 
-        player.getAvatars().forEach(avatar -> proto.addAvatarList(avatar.toProto()));
+        if (loginCache == null) {
+            player.getAvatars().forEach(avatar -> proto.addAvatarList(avatar.toProto()));
+        }
 
         player.getTeamManager().getTeams().forEach((id, teamInfo) -> {
             proto.putAvatarTeamMap(id, teamInfo.toProto(player));
@@ -32,7 +47,34 @@ public class PacketAvatarDataNotify extends BasePacket {
             proto.setChooseAvatarGuid(mainCharacter.getGuid());
         }
 
-        this.setData(proto.build());
+        if (loginCache == null) {
+            this.setData(proto.build());
+            return;
+        }
+
+        // Repeated fields of concatenated messages are merged, so the cached avatars can be appended as is
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+            proto.build().writeTo(output);
+            for (Avatar avatar : player.getAvatars()) {
+                output.writeByteArray(AvatarDataNotify.AVATAR_LIST_FIELD_NUMBER, getAvatarData(player, avatar, loginCache));
+            }
+            output.flush();
+            this.setData(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
+    private static byte[] getAvatarData(Player player, Avatar avatar, LoginPacketCache loginCache) {
+        // Guids are assigned per session, and the name card is stored with the player
+        long fingerprint = LoginPacketCache.fingerprint(0, avatar.getGuid());
+        for (var item : avatar.getEquips().values()) {
+            fingerprint = LoginPacketCache.fingerprint(fingerprint, item.getGuid());
+        }
+        fingerprint = LoginPacketCache.fingerprint(fingerprint, player.getNameCardList().contains(avatar.getNameCardId()) ? 1 : 0);
+
+        return loginCache.getAvatar(avatar.getAvatarId(), fingerprint, () -> avatar.toProto().toByteArray());
+    }
 }
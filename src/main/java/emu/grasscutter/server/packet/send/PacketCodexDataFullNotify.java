@@ -3,6 +3,7 @@ package emu.grasscutter.server.packet.send;
 import java.util.Collections;
 
 import emu.grasscutter.data.GameData;
+import emu.grasscutter.game.player.LoginPacketCache;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.net.packet.BasePacket;
 import emu.grasscutter.net.packet.PacketOpcodes;
@@ -11,8 +12,23 @@ import emu.grasscutter.net.proto.CodexTypeDataOuterClass.CodexTypeData;
 
 public class PacketCodexDataFullNotify extends BasePacket {
     public PacketCodexDataFullNotify(Player player) {
+        this(player, null);
+    }
+
+    /**
+     * @param loginCache Reuses the serialized codex from an earlier login, may be null.
+     */
+    public PacketCodexDataFullNotify(Player player, LoginPacketCache loginCache) {
         super(PacketOpcodes.CodexDataFullNotify, true);
 
+        if (loginCache != null) {
+            this.setData(loginCache.getCodex(() -> buildProto(player).toByteArray()));
+        } else {
+            this.setData(buildProto(player));
+        }
+    }
+
+    private static CodexDataFullNotify buildProto(Player player) {
         //Quests
         CodexTypeData.Builder questTypeData = CodexTypeData.newBuilder()
                 .setTypeValue(1);
@@ -89,6 +105,6 @@ public class PacketCodexDataFullNotify extends BasePacket {
                 .addTypeDataList(viewTypeData.build())
                 .addTypeDataList(reliquaryData);
 
-        this.setData(proto);
+        return proto.build();
     }
 }
@@ -52,6 +52,22 @@ public class PacketGetPlayerTokenRsp extends BasePacket {
         this.setData(p.toByteArray());
     }
 
+    public PacketGetPlayerTokenRsp(GameSession session, int retcode) {
+        super(PacketOpcodes.GetPlayerTokenRsp, true);
+
+        this.setUseDispatchKey(true);
+
+        // Sent before a player has been loaded for this session
+        GetPlayerTokenRsp p = GetPlayerTokenRsp.newBuilder()
+            .setRetcode(retcode)
+            .setRegPlatform(3)
+            .setCountryCode("US")
+            .setClientIpStr(session.getAddress().getAddress().getHostAddress())
+            .build();
+
+        this.setData(p.toByteArray());
+    }
+
     public PacketGetPlayerTokenRsp(GameSession session, String encryptedSeed, String encryptedSeedSign) {
         super(PacketOpcodes.GetPlayerTokenRsp, true);
 
@@ -2,7 +2,13 @@ package emu.grasscutter.server.packet.send;
 
 import static emu.grasscutter.config.Configuration.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.google.protobuf.CodedOutputStream;
+
 import emu.grasscutter.game.inventory.GameItem;
+import emu.grasscutter.game.player.LoginPacketCache;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.net.packet.BasePacket;
 import emu.grasscutter.net.packet.PacketOpcodes;
@@ -13,6 +19,13 @@ import emu.grasscutter.net.proto.StoreTypeOuterClass.StoreType;
 public class PacketPlayerStoreNotify extends BasePacket {
 
     public PacketPlayerStoreNotify(Player player) {
+        this(player, null);
+    }
+
+    /**
+     * @param loginCache Reuses the serialized item list from an earlier login, may be null.
+     */
+    public PacketPlayerStoreNotify(Player player, LoginPacketCache loginCache) {
         super(PacketOpcodes.PlayerStoreNotify);
 
         this.buildHeader(2);
@@ -21,11 +34,42 @@ public class PacketPlayerStoreNotify extends BasePacket {
                 .setStoreType(StoreType.STORE_TYPE_PACK)
                 .setWeightLimit(GAME_OPTIONS.inventoryLimits.all);
 
+        if (loginCache == null) {
+            for (GameItem item : player.getInventory()) {
+                Item itemProto = item.toProto();
+                p.addItemList(itemProto);
+            }
+
+            this.setData(p.build());
+            return;
+        }
+
+        long fingerprint = 0;
         for (GameItem item : player.getInventory()) {
-            Item itemProto = item.toProto();
-            p.addItemList(itemProto);
+            fingerprint = LoginPacketCache.fingerprint(fingerprint, item.getGuid());
+            fingerprint = LoginPacketCache.fingerprint(fingerprint, item.getItemId());
         }
+        byte[] items = loginCache.getInventory(fingerprint, () -> serializeItems(player));
 
-        this.setData(p.build());
+        // Repeated fields of concatenated messages are merged, so the cached item list can be appended as is
+        byte[] header = p.build().toByteArray();
+        byte[] data = new byte[header.length + items.length];
+        System.arraycopy(header, 0, data, 0, header.length);
+        System.arraycopy(items, 0, data, header.length, items.length);
+        this.setData(data);
+    }
+
+    private static byte[] serializeItems(Player player) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+            for (GameItem item : player.getInventory()) {
+                output.writeMessage(PlayerStoreNotify.ITEM_LIST_FIELD_NUMBER, item.toProto());
+            }
+            output.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -16,9 +16,9 @@ public final class AsyncServerTask implements Runnable {
     @Nullable private final Runnable callback;
 
     /* Has the task already been started? */
-    private boolean started = false;
+    private volatile boolean started = false;
     /* Has the task finished execution? */
-    private boolean finished = false;
+    private volatile boolean finished = false;
     /* The result produced in the async task. */
     @Nullable private Object result = null;
 
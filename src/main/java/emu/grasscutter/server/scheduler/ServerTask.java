@@ -13,7 +13,7 @@ public final class ServerTask implements Runnable {
     @Getter private final int taskId;
     /* The period at which the task should be run. */
     /* The delay between the first execute. */
-    private final int period, delay;
+    @Getter private final int period, delay;
 
     public ServerTask(Runnable runnable, int taskId, int period, int delay) {
         this.runnable = runnable;
@@ -24,8 +24,14 @@ public final class ServerTask implements Runnable {
 
     /* The amount of times the task has been run. */
     @Getter private int ticks = 0;
-    /* Should the check consider delay? */
-    private boolean considerDelay = true;
+    /* Has the task been canceled? */
+    private volatile boolean canceled = false;
+
+    /* The tick the task runs next, managed by the scheduler. */
+    long deadline;
+    /* The wheel slot the task is linked into, managed by the scheduler. */
+    ServerTaskScheduler.Bucket bucket;
+    ServerTask prev, next;
 
     /**
      * Cancels the task from running the next time.
@@ -35,32 +41,29 @@ public final class ServerTask implements Runnable {
     }
 
     /**
-     * Checks if the task should run at the current tick.
-     * @return True if the task should run, false otherwise.
+     * @return True if the task has been canceled.
      */
-    public boolean shouldRun() {
-        // Increase tick count.
-        var ticks = this.ticks++;
-        if(this.delay != -1 && this.considerDelay) {
-            this.considerDelay = false;
-            return ticks == this.delay;
-        } else if(this.period != -1)
-            return ticks % this.period == 0;
-        else return true;
+    public boolean isCanceled() {
+        return this.canceled;
+    }
+
+    void markCanceled() {
+        this.canceled = true;
     }
 
     /**
-     * Checks if the task should be canceled.
-     * @return True if the task should be canceled, false otherwise.
+     * @return True if the task should run again after its period.
      */
-    public boolean shouldCancel() {
-        return this.period == -1 && ticks > delay;
+    public boolean isRepeating() {
+        return this.period > 0;
     }
 
     /**
      * Runs the task.
      */
     @Override public void run() {
+        // Increase run count.
+        this.ticks++;
         // Run the runnable.
         this.runnable.run();
     }
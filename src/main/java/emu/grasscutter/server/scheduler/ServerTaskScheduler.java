@@ -1,14 +1,39 @@
 package emu.grasscutter.server.scheduler;
 
+import emu.grasscutter.Grasscutter;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class to manage all time-based tasks scheduled on the server.
  * This handles both synchronous and asynchronous tasks.
  *
  * Developers note: A server tick is ONE REAL-TIME SECOND.
+ *
+ * Synchronous tasks are kept in a hierarchical timing wheel, so scheduling, running and
+ * canceling a task does not depend on how many other tasks are scheduled. Tasks can be
+ * scheduled and canceled from any thread; the wheel itself is only touched by the tick.
  */
 public final class ServerTaskScheduler {
+    /* Each wheel has 64 slots, every level covers 64 times the ticks of the one below. */
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int WHEEL_LEVELS = 4;
+    /* Tasks further away than this are parked in the last slot of the top level. */
+    private static final long MAX_SPAN = 1L << (WHEEL_BITS * WHEEL_LEVELS);
+
+    private static final int ASYNC_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int ASYNC_QUEUE_SIZE = 1024;
+
     /* A map to contain all running tasks. */
     private final ConcurrentHashMap<Integer, ServerTask> tasks
         = new ConcurrentHashMap<>();
@@ -16,8 +41,37 @@ public final class ServerTaskScheduler {
     private final ConcurrentHashMap<Integer, AsyncServerTask> asyncTasks
         = new ConcurrentHashMap<>();
 
+    /* Tasks scheduled or canceled since the last tick. */
+    private final Queue<ServerTask> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<ServerTask> canceled = new ConcurrentLinkedQueue<>();
+    /* Async tasks waiting for a worker, and the ones whose callback should run. */
+    private final ConcurrentLinkedDeque<AsyncServerTask> asyncPending = new ConcurrentLinkedDeque<>();
+    private final Queue<AsyncServerTask> asyncFinished = new ConcurrentLinkedQueue<>();
+
+    private final Bucket[][] wheels = new Bucket[WHEEL_LEVELS][WHEEL_SIZE];
+    private final ThreadPoolExecutor asyncExecutor;
+
     /* The ID assigned to the next runnable. */
-    private int nextTaskId = 0;
+    private final AtomicInteger nextTaskId = new AtomicInteger();
+    /* The current tick, only used by the ticking thread. */
+    private long currentTick = 0;
+
+    public ServerTaskScheduler() {
+        for (Bucket[] wheel : this.wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.asyncExecutor = new ThreadPoolExecutor(ASYNC_THREADS, ASYNC_THREADS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(ASYNC_QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "Scheduler-Async-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.asyncExecutor.allowCoreThreadTimeOut(true);
+    }
 
     /**
      * Ran every server tick.
@@ -25,39 +79,115 @@ public final class ServerTaskScheduler {
      * This method is synchronous and will block until all tasks are complete.
      */
     public void runTasks() {
-        // Skip if there are no tasks.
-        if(this.tasks.size() == 0)
-            return;
-
-        // Run all tasks.
-        for(ServerTask task : this.tasks.values()) {
-            // Check if the task should run.
-            if (task.shouldRun()) {
-                // Run the task.
-                task.run();
-            }
+        long tick = ++this.currentTick;
 
-            // Check if the task should be canceled.
-            if (task.shouldCancel()) {
-                // Cancel the task.
-                this.cancelTask(task.getTaskId());
-            }
+        // Move tasks from the higher wheels down once their slot comes up.
+        for (int level = 1; level < WHEEL_LEVELS; level++) {
+            if ((tick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) break;
+            this.cascade(this.wheels[level][(int) (tick >>> (WHEEL_BITS * level)) & WHEEL_MASK]);
         }
 
-        // Run all async tasks.
-        for(AsyncServerTask task : this.asyncTasks.values()) {
-            if(!task.hasStarted()) {
-                // Create a thread for the task.
-                Thread thread = new Thread(task);
-                // Start the thread.
-                thread.start();
-            } else if(task.isFinished()) {
-                // Cancel the task.
-                this.asyncTasks.remove(task.getTaskId());
-                // Run the task's callback.
-                task.complete();
+        // Unlink canceled tasks.
+        ServerTask task;
+        while ((task = this.canceled.poll()) != null) {
+            if (task.bucket != null) task.bucket.remove(task);
+        }
+
+        // Add newly scheduled tasks.
+        while ((task = this.scheduled.poll()) != null) {
+            if (task.isCanceled()) continue;
+            task.deadline = tick + Math.max(task.getDelay(), 0);
+            this.insert(task);
+        }
+
+        // Run all tasks due this tick.
+        task = this.wheels[0][(int) tick & WHEEL_MASK].clear();
+        while (task != null) {
+            ServerTask next = task.next;
+            task.prev = task.next = null;
+            this.runTask(task, tick);
+            task = next;
+        }
+
+        this.runAsyncTasks();
+    }
+
+    private void runTask(ServerTask task, long tick) {
+        if (task.isCanceled()) return;
+
+        try {
+            task.run();
+        } catch (Exception exception) {
+            Grasscutter.getLogger().error("Scheduled task {} failed.", task.getTaskId(), exception);
+        }
+
+        // Reschedule or remove the task.
+        if (task.isRepeating() && !task.isCanceled()) {
+            task.deadline = tick + task.getPeriod();
+            this.insert(task);
+        } else {
+            this.tasks.remove(task.getTaskId(), task);
+        }
+    }
+
+    private void runAsyncTasks() {
+        // Hand pending tasks to the workers until the queue is full.
+        AsyncServerTask task;
+        while ((task = this.asyncPending.poll()) != null) {
+            AsyncServerTask submitted = task;
+            try {
+                this.asyncExecutor.execute(() -> {
+                    try {
+                        submitted.run();
+                    } catch (Exception exception) {
+                        Grasscutter.getLogger().error("Async task {} failed.", submitted.getTaskId(), exception);
+                    } finally {
+                        this.asyncFinished.offer(submitted);
+                    }
+                });
+            } catch (RejectedExecutionException ignored) {
+                // Try again next tick.
+                this.asyncPending.offerFirst(task);
+                break;
             }
         }
+
+        // Run the callbacks of finished tasks.
+        while ((task = this.asyncFinished.poll()) != null) {
+            this.asyncTasks.remove(task.getTaskId());
+            task.complete();
+        }
+    }
+
+    private void insert(ServerTask task) {
+        long delta = task.deadline - this.currentTick;
+        if (delta < 0) delta = 0;
+
+        int level = 0;
+        while (level < WHEEL_LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+
+        // The task is moved to its real slot once the parking slot cascades.
+        long slotTick = delta < MAX_SPAN ? task.deadline : this.currentTick + MAX_SPAN - 1;
+        this.wheels[level][(int) (slotTick >>> (WHEEL_BITS * level)) & WHEEL_MASK].add(task);
+    }
+
+    private void cascade(Bucket bucket) {
+        ServerTask task = bucket.clear();
+        while (task != null) {
+            ServerTask next = task.next;
+            task.prev = task.next = null;
+            this.insert(task);
+            task = next;
+        }
+    }
+
+    /**
+     * Stops the async workers, letting running tasks finish.
+     */
+    public void shutdown() {
+        this.asyncExecutor.shutdown();
     }
 
     /**
@@ -83,7 +213,11 @@ public final class ServerTaskScheduler {
      * @param taskId The ID of the task to remove.
      */
     public void cancelTask(int taskId) {
-        this.tasks.remove(taskId);
+        ServerTask task = this.tasks.remove(taskId);
+        if (task == null) return;
+
+        task.markCanceled();
+        this.canceled.offer(task);
     }
 
     /**
@@ -94,9 +228,11 @@ public final class ServerTaskScheduler {
      */
     public int scheduleAsyncTask(Runnable runnable) {
         // Get the next task ID.
-        var taskId = this.nextTaskId++;
+        var taskId = this.nextTaskId.getAndIncrement();
         // Create a new task.
-        this.asyncTasks.put(taskId, new AsyncServerTask(runnable, taskId));
+        var task = new AsyncServerTask(runnable, taskId);
+        this.asyncTasks.put(taskId, task);
+        this.asyncPending.offer(task);
         // Return the task ID.
         return taskId;
     }
@@ -139,10 +275,51 @@ public final class ServerTaskScheduler {
      */
     public int scheduleDelayedRepeatingTask(Runnable runnable, int period, int delay) {
         // Get the next task ID.
-        var taskId = this.nextTaskId++;
+        var taskId = this.nextTaskId.getAndIncrement();
         // Create a new task.
-        this.tasks.put(taskId, new ServerTask(runnable, taskId, period, delay));
+        var task = new ServerTask(runnable, taskId, period, delay);
+        this.tasks.put(taskId, task);
+        this.scheduled.offer(task);
         // Return the task ID.
         return taskId;
     }
-}
\ No newline at end of file
+
+    /**
+     * A slot of the timing wheel, a doubly linked list of tasks.
+     */
+    static final class Bucket {
+        private ServerTask head, tail;
+
+        void add(ServerTask task) {
+            task.bucket = this;
+            task.prev = this.tail;
+            task.next = null;
+            if (this.tail == null) this.head = task;
+            else this.tail.next = task;
+            this.tail = task;
+        }
+
+        void remove(ServerTask task) {
+            if (task.prev == null) this.head = task.next;
+            else task.prev.next = task.next;
+            if (task.next == null) this.tail = task.prev;
+            else task.next.prev = task.prev;
+
+            task.prev = task.next = null;
+            task.bucket = null;
+        }
+
+        /**
+         * Empties the slot.
+         * @return The first task that was in the slot, linked to the others.
+         */
+        ServerTask clear() {
+            ServerTask first = this.head;
+            for (ServerTask task = first; task != null; task = task.next) {
+                task.bucket = null;
+            }
+            this.head = this.tail = null;
+            return first;
+        }
+    }
+}
@@ -24,6 +24,9 @@ import emu.grasscutter.data.GameData;
 import emu.grasscutter.data.ResourceLoader;
 import emu.grasscutter.data.excels.AvatarData;
 import emu.grasscutter.data.excels.ItemData;
+import emu.grasscutter.database.DatabaseHelper;
+import emu.grasscutter.game.inventory.GameItem;
+import emu.grasscutter.game.inventory.MaterialLedger;
 import emu.grasscutter.utils.Language;
 import emu.grasscutter.utils.Language.TextStrings;
 import it.unimi.dsi.fastutil.ints.Int2IntRBTreeMap;
@@ -146,6 +149,32 @@ public final class Tools {
         Grasscutter.getLogger().info("GM Handbooks generated!");
     }
 
+    /**
+     * Converts stored materials between one document per item and the packed per-player ledger.
+     * Must not be run while a game server is using the database.
+     * @param pack True to move materials into ledgers, false to move them back into item documents.
+     */
+    public static void migrateMaterials(boolean pack) {
+        List<Integer> owners = pack ? DatabaseHelper.getItemOwnerIds() : DatabaseHelper.getMaterialLedgerOwnerIds();
+        Grasscutter.getLogger().info("Migrating materials of {} players...", owners.size());
+
+        int migrated = 0;
+        for (int ownerId : owners) {
+            List<GameItem> items = new ArrayList<>(DatabaseHelper.getInventoryItems(ownerId));
+            if (pack) {
+                MaterialLedger.pack(ownerId, items);
+            } else {
+                MaterialLedger.unpack(ownerId, items);
+            }
+
+            if (++migrated % 1000 == 0) {
+                Grasscutter.getLogger().info("Migrated {}/{} players.", migrated, owners.size());
+            }
+        }
+
+        Grasscutter.getLogger().info("Material migration finished.");
+    }
+
     public static List<String> createGachaMappingJsons() {
         final int NUM_LANGUAGES = Language.TextStrings.NUM_LANGUAGES;
         final Language.TextStrings CHARACTER = Language.getTextMapKey(4233146695L);  // "Character" in EN
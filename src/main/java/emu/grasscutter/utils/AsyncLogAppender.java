@@ -0,0 +1,181 @@
+package emu.grasscutter.utils;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands log events to a dedicated thread, which passes them on to the attached appenders.
+ * Logging threads only prepare the event and put it in a bounded lock-free queue, so the console,
+ * log files and plugin log events never run on game or network threads.
+ */
+public class AsyncLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+    public enum OverflowPolicy {
+        /* Drop the oldest queued event to make room, counted in getDroppedEvents(). */
+        DROP_OLDEST,
+        /* Wait until the log thread made room. */
+        BLOCK
+    }
+
+    private static final LongAdder droppedEvents = new LongAdder();
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final Queue<ILoggingEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private int queueSize = 8192;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private boolean includeCallerData = true;
+
+    private Thread worker;
+    private volatile boolean running = false;
+    private volatile boolean sleeping = false;
+
+    /**
+     * @return The number of log events dropped because the queue was full.
+     */
+    public static long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Caller data (class and line) can only be captured on the logging thread, disable it if no pattern uses it.
+     */
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    @Override
+    public void start() {
+        if (this.isStarted()) return;
+        if (this.queueSize < 1) {
+            this.addError("Invalid queue size " + this.queueSize + ".");
+            return;
+        }
+
+        this.running = true;
+        this.worker = new Thread(this::drain, "Log-Writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!this.isStarted()) return;
+        super.stop();
+
+        // Let the log thread write what is left.
+        this.running = false;
+        LockSupport.unpark(this.worker);
+        try {
+            this.worker.join(1000);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Capture everything that depends on the logging thread.
+        event.prepareForDeferredProcessing();
+        if (this.includeCallerData) {
+            event.getCallerData();
+        }
+
+        if (this.queued.incrementAndGet() > this.queueSize) {
+            // The log thread itself never waits, events logged by its appenders would deadlock.
+            if (this.overflowPolicy == OverflowPolicy.BLOCK && Thread.currentThread() != this.worker) {
+                while (this.queued.get() > this.queueSize && this.running) {
+                    LockSupport.unpark(this.worker);
+                    LockSupport.parkNanos(100_000);
+                }
+            } else if (this.queue.poll() != null) {
+                this.queued.decrementAndGet();
+                droppedEvents.increment();
+            }
+        }
+
+        this.queue.offer(event);
+        if (this.sleeping) {
+            LockSupport.unpark(this.worker);
+        }
+    }
+
+    private void drain() {
+        while (this.running || !this.queue.isEmpty()) {
+            ILoggingEvent event = this.queue.poll();
+            if (event == null) {
+                this.sleeping = true;
+                if (this.running && this.queue.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                this.sleeping = false;
+                continue;
+            }
+
+            this.queued.decrementAndGet();
+            try {
+                this.appenders.appendLoopOnAppenders(event);
+            } catch (Exception exception) {
+                this.addError("Failed to write a log event.", exception);
+            }
+        }
+    }
+
+    /* Attached appenders. */
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        this.appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return this.appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return this.appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return this.appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        this.appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return this.appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return this.appenders.detachAppender(name);
+    }
+}
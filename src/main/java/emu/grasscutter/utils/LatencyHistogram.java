@@ -0,0 +1,109 @@
+package emu.grasscutter.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in microseconds, in the style of HdrHistogram.
+ * Durations below 16 microseconds are counted exactly, longer ones in buckets that are
+ * at most 12.5% wide. Recording costs two atomic adds.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /* Durations below this are counted in a bucket of their own. */
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    private static final int LINEAR_EXPONENT = SUB_BUCKET_BITS + 1;
+    /* The last bucket also counts everything above 2^36 microseconds. */
+    private static final int MAX_EXPONENT = 35;
+    public static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - LINEAR_EXPONENT + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalMicros = new LongAdder();
+
+    public void record(long micros) {
+        micros = Math.max(micros, 0);
+        this.buckets.incrementAndGet(getBucket(micros));
+        this.totalMicros.add(micros);
+    }
+
+    private static int getBucket(long micros) {
+        if (micros < LINEAR_LIMIT) return (int) micros;
+
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        int subBucket = exponent == MAX_EXPONENT && micros >>> exponent > 1
+            ? SUB_BUCKETS - 1
+            : (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - LINEAR_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return The exclusive upper bound of a bucket, in microseconds.
+     */
+    public static long getUpperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) return bucket + 1;
+
+        int exponent = LINEAR_EXPONENT + (bucket - LINEAR_LIMIT) / SUB_BUCKETS;
+        int subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    public long getBucketCount(int bucket) {
+        return this.buckets.get(bucket);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += this.buckets.get(i);
+        }
+        return count;
+    }
+
+    public long getTotalMicros() {
+        return this.totalMicros.sum();
+    }
+
+    /**
+     * @param bounds Ascending upper bounds in microseconds. Counts are exact for bucket boundaries, such as powers of two.
+     * @return For each bound the number of durations below it, followed by the number of all durations.
+     */
+    public long[] getCumulativeCounts(long[] bounds) {
+        long[] counts = new long[bounds.length + 1];
+        long seen = 0;
+        int bound = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            while (bound < bounds.length && getUpperBound(i) > bounds[bound]) {
+                counts[bound++] = seen;
+            }
+            seen += this.buckets.get(i);
+        }
+        while (bound < bounds.length) {
+            counts[bound++] = seen;
+        }
+        counts[bounds.length] = seen;
+        return counts;
+    }
+
+    /**
+     * @param quantile The quantile, between 0 and 1.
+     * @return The upper bound of the bucket holding the quantile in microseconds, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) return 0;
+
+        long target = Math.max((long) Math.ceil(quantile * count), 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) return getUpperBound(i);
+        }
+        return getUpperBound(BUCKETS - 1);
+    }
+}
@@ -5,7 +5,10 @@ import ch.qos.logback.classic.Logger;
 import emu.grasscutter.BuildConfig;
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.Grasscutter.ServerRunMode;
+import emu.grasscutter.data.ResourceLoader;
+import emu.grasscutter.database.DatabaseManager;
 import emu.grasscutter.net.packet.PacketOpcodesUtils;
+import emu.grasscutter.tools.Tools;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
@@ -35,6 +38,7 @@ public final class StartupArguments {
         },"-dispatch", parameter -> {
             Grasscutter.setRunModeOverride(ServerRunMode.DISPATCH_ONLY); return false;
         },
+        "-migratematerials", StartupArguments::migrateMaterials,
 
         // Aliases.
         "-v", StartupArguments::printVersion,
@@ -75,6 +79,19 @@ public final class StartupArguments {
         System.out.println("Grasscutter version: " + BuildConfig.VERSION + "-" + BuildConfig.GIT_HASH); return true;
     }
 
+    /**
+     * Moves stored materials into per-player ledgers, or back into item documents with "=unpack".
+     * @param parameter Additional parameters.
+     * @return True to exit early.
+     */
+    private static boolean migrateMaterials(String parameter) {
+        ResourceLoader.loadResources();
+        DatabaseManager.initialize();
+
+        Tools.migrateMaterials(!"unpack".equalsIgnoreCase(parameter));
+        return true;
+    }
+
     /**
      * Enables debug logging.
      * @param parameter Additional parameters.
@@ -298,6 +298,21 @@ public final class Utils {
         return 0;
     }
 
+    /**
+     * Evaluates {@link #lerp(int, int[][])} for every x from 0 to the last fixed point.
+     * Values past the end of the table are clamped, so index with {@code table[Math.min(x, table.length - 1)]}.
+     * @param xyArray Array of points in [[x0,y0], ... [xN, yN]] format
+     * @return The lookup table.
+     */
+    public static int[] lerpTable(int[][] xyArray) {
+        int maxX = (xyArray.length > 0 && xyArray[xyArray.length-1].length > 0) ? Math.max(xyArray[xyArray.length-1][0], 0) : 0;
+        int[] table = new int[maxX + 1];
+        for (int x = 0; x <= maxX; x++) {
+            table[x] = lerp(x, xyArray);
+        }
+        return table;
+    }
+
     /**
      * Checks if an int is in an int[]
      * @param key int to look for